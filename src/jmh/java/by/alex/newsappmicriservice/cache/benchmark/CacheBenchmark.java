@@ -0,0 +1,124 @@
+package by.alex.newsappmicriservice.cache.benchmark;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность операций кэша новостей.
+ * Ключи запрашиваются из пространства, вчетверо большего емкости кэша, поэтому get и getOrLoad
+ * дают и попадания, и промахи, а put заменяет и добавляет элементы с вытеснением.
+ * Количество потоков задается при запуске (см. {@link CacheBenchmarkRunner}),
+ * скорость выделения памяти - профилировщиком gc.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=2g"})
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+    /**
+     * Количество заранее сгенерированных ключей, степень двойки.
+     */
+    private static final int KEYS = 1 << 20;
+
+    @Param({"LRU", "LFU", "CONCURRENT_LRU", "CONCURRENT_LFU", "TINYLFU", "OFF_HEAP"})
+    public String algorithm;
+
+    @Param({"UNIFORM", "ZIPF"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private AbstractCache<Long, ResponseNewsDto> cache;
+
+    private long[] keys;
+
+    private ResponseNewsDto news;
+
+    /**
+     * Создает кэш, генерирует ключи и заполняет кэш до емкости.
+     *
+     * @param params Параметры запуска, из которых берется количество потоков.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        cache = CacheFactory.create(algorithm, size, params.getThreads());
+        keys = distribution.generate(size * 4, KEYS, 42);
+        news = new ResponseNewsDto(1L, LocalDateTime.of(2024, 2, 1, 12, 0), "Benchmark news title",
+                "Benchmark news text ".repeat(10));
+        for (long key = 1; key <= size; key++) {
+            cache.put(key, news);
+        }
+    }
+
+    /**
+     * Позиция потока в последовательности ключей. Потоки начинают с разных позиций.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void setUp(ThreadParams params) {
+            index = params.getThreadIndex() * (KEYS / Math.max(1, params.getThreadCount()));
+        }
+
+        private long next(long[] keys) {
+            return keys[index++ & (KEYS - 1)];
+        }
+    }
+
+    /**
+     * Чтение без загрузки при промахе.
+     */
+    @Benchmark
+    public ResponseNewsDto get(Cursor cursor) {
+        return cache.get(cursor.next(keys));
+    }
+
+    /**
+     * Запись, заменяющая существующий элемент или добавляющая новый с вытеснением.
+     */
+    @Benchmark
+    public void put(Cursor cursor) {
+        cache.put(cursor.next(keys), news);
+    }
+
+    /**
+     * Чтение с загрузкой при промахе, как его выполняет аспект кэширования.
+     */
+    @Benchmark
+    public ResponseNewsDto getOrLoad(Cursor cursor) {
+        return cache.getOrLoad(cursor.next(keys), key -> news);
+    }
+
+    /**
+     * Вытеснение элемента с добавлением нового, чтобы кэш оставался заполненным.
+     */
+    @Benchmark
+    public void evictAndPut(Cursor cursor) {
+        cache.evict();
+        cache.put(cursor.next(keys), news);
+    }
+}
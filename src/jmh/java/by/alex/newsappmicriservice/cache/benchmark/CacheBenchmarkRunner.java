@@ -0,0 +1,50 @@
+package by.alex.newsappmicriservice.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Запускает {@link CacheBenchmark} для каждого количества потоков с профилировщиком gc
+ * и сохраняет результаты в JSON, чтобы изменения кэша сравнивались с предыдущими замерами.
+ * <p>
+ * Запуск: {@code ./gradlew cacheBenchmark [-Pthreads=1,4,16] [-Palgorithms=CONCURRENT_LRU,TINYLFU]
+ * [-Psizes=1000,100000,1000000]}
+ */
+public final class CacheBenchmarkRunner {
+
+    private CacheBenchmarkRunner() {
+    }
+
+    /**
+     * Запускает бенчмарки.
+     *
+     * @param args Количества потоков через запятую, каталог результатов,
+     *             а также необязательные списки алгоритмов и размеров кэша через запятую.
+     */
+    public static void main(String[] args) throws RunnerException {
+        String[] threads = args.length > 0 && !args[0].isBlank() ? args[0].split(",") : new String[]{"1", "4", "16"};
+        File resultDirectory = new File(args.length > 1 ? args[1] : "build/reports/jmh");
+        resultDirectory.mkdirs();
+        for (String threadCount : threads) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(CacheBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threadCount.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDirectory, "cache-" + threadCount.trim() + "-threads.json").getPath());
+            if (args.length > 2 && !args[2].isBlank()) {
+                options.param("algorithm", args[2].split(","));
+            }
+            if (args.length > 3 && !args[3].isBlank()) {
+                options.param("size", args[3].split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package by.alex.newsappmicriservice.cache.benchmark;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLFUCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.cache.impl.LFUCache;
+import by.alex.newsappmicriservice.cache.impl.LRUCache;
+import by.alex.newsappmicriservice.cache.impl.OffHeapCache;
+import by.alex.newsappmicriservice.cache.impl.TinyLFUCache;
+import by.alex.newsappmicriservice.cache.serializer.ResponseNewsDtoSerializer;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+
+/**
+ * Создает кэши для бенчмарков по имени алгоритма из spring.cache.algorithm.
+ * Новая реализация {@link AbstractCache} попадает в бенчмарки после добавления ветки в {@link #create}
+ * и имени в @Param алгоритма {@link CacheBenchmark}.
+ */
+final class CacheFactory {
+
+    /**
+     * Примерный размер сериализованной новости из {@link CacheBenchmark}, используется для емкости OFF_HEAP.
+     */
+    private static final int OFF_HEAP_ENTRY_BYTES = 512;
+
+    private CacheFactory() {
+    }
+
+    /**
+     * Создает кэш выбранного алгоритма.
+     * Однопоточные LRU и LFU при нескольких потоках оборачиваются в {@link SynchronizedCache}.
+     *
+     * @param algorithm Имя алгоритма.
+     * @param size      Максимальный размер кэша.
+     * @param threads   Количество потоков бенчмарка.
+     * @return Экземпляр кэша.
+     */
+    static AbstractCache<Long, ResponseNewsDto> create(String algorithm, int size, int threads) {
+        return switch (algorithm) {
+            case "LRU" -> synchronizedIfShared(new LRUCache<>(size), threads);
+            case "LFU" -> synchronizedIfShared(new LFUCache<>(size), threads);
+            case "CONCURRENT_LRU" -> new ConcurrentLRUCache<>(size);
+            case "CONCURRENT_LFU" -> new ConcurrentLFUCache<>(size);
+            case "TINYLFU" -> new TinyLFUCache<>(size);
+            case "OFF_HEAP" -> new OffHeapCache<>((long) size * OFF_HEAP_ENTRY_BYTES, new ResponseNewsDtoSerializer());
+            default -> throw new IllegalArgumentException("Unknown cache algorithm " + algorithm);
+        };
+    }
+
+    private static <K, V> AbstractCache<K, V> synchronizedIfShared(AbstractCache<K, V> cache, int threads) {
+        return threads > 1 ? new SynchronizedCache<>(cache) : cache;
+    }
+}
@@ -0,0 +1,76 @@
+package by.alex.newsappmicriservice.cache.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Распределения ключей для бенчмарков. Ключи генерируются заранее,
+ * чтобы генератор случайных чисел не влиял на измерения.
+ */
+public enum KeyDistribution {
+
+    /**
+     * Все ключи запрашиваются с одинаковой вероятностью.
+     */
+    UNIFORM {
+        @Override
+        long[] generate(int keySpace, int count, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = random.nextInt(keySpace) + 1;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Распределение Ципфа с перекосом 0.99 (как в YCSB): небольшое число новостей получает большую часть запросов.
+     * Ранги перемешаны, чтобы популярные ключи не шли подряд.
+     */
+    ZIPF {
+        private static final double SKEW = 0.99;
+
+        @Override
+        long[] generate(int keySpace, int count, long seed) {
+            double[] cumulative = new double[keySpace];
+            double sum = 0;
+            for (int rank = 1; rank <= keySpace; rank++) {
+                sum += 1 / Math.pow(rank, SKEW);
+                cumulative[rank - 1] = sum;
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] keyByRank = shuffledKeys(keySpace, random);
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                keys[i] = keyByRank[index >= 0 ? index : -index - 1];
+            }
+            return keys;
+        }
+    };
+
+    /**
+     * Генерирует последовательность ключей от 1 до keySpace.
+     *
+     * @param keySpace Количество различных ключей.
+     * @param count    Длина последовательности.
+     * @param seed     Начальное значение генератора.
+     * @return Последовательность ключей.
+     */
+    abstract long[] generate(int keySpace, int count, long seed);
+
+    private static int[] shuffledKeys(int keySpace, SplittableRandom random) {
+        int[] keys = new int[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            keys[i] = i + 1;
+        }
+        for (int i = keySpace - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,52 @@
+package by.alex.newsappmicriservice.cache.benchmark;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Кэш, все операции которого выполняются под одной блокировкой.
+ * Позволяет сравнить однопоточные реализации с потокобезопасными при нескольких потоках.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+final class SynchronizedCache<K, V> implements AbstractCache<K, V> {
+
+    private final AbstractCache<K, V> delegate;
+
+    SynchronizedCache(AbstractCache<K, V> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public synchronized Collection<V> getAllValues() {
+        return List.copyOf(delegate.getAllValues());
+    }
+
+    @Override
+    public synchronized void evict() {
+        delegate.evict();
+    }
+
+    @Override
+    public synchronized void delete(K key) {
+        delegate.delete(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(K key) {
+        return delegate.containsKey(key);
+    }
+}
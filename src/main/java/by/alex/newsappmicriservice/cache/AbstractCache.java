@@ -1,6 +1,9 @@
 package by.alex.newsappmicriservice.cache;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Интерфейс, определяющий базовые операции для кэша.
@@ -18,6 +21,27 @@ public interface AbstractCache<K, V> {
      */
     V get(K k);
 
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает, сохраняет в кэш и возвращает.
+     * В отличие от пары containsKey/get выполняет одно обращение к кэшу.
+     * Реализация по умолчанию не защищает от одновременной загрузки одного ключа несколькими потоками,
+     * потокобезопасные реализации переопределяют ее так, что загрузчик вызывается один раз.
+     *
+     * @param k      Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    default V getOrLoad(K k, Function<? super K, ? extends V> loader) {
+        V value = get(k);
+        if (value == null) {
+            value = loader.apply(k);
+            if (value != null) {
+                put(k, value);
+            }
+        }
+        return value;
+    }
+
     /**
      * Добавляет новый элемент в кэш или обновляет существующий.
      *
@@ -26,6 +50,45 @@ public interface AbstractCache<K, V> {
      */
     void put(K k, V v);
 
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий с индивидуальным временем жизни после записи.
+     * Реализации без поддержки времени жизни хранят элемент до вытеснения.
+     *
+     * @param k   Ключ элемента.
+     * @param v   Значение элемента.
+     * @param ttl Время жизни элемента после записи.
+     */
+    default void put(K k, V v, Duration ttl) {
+        put(k, v);
+    }
+
+    /**
+     * Добавляет элемент, если элемента с таким ключом нет в кэше. Не считается обращением к элементу:
+     * не учитывается в статистике попаданий и частоте использования.
+     * Используется для значений, прочитанных из источника данных вместе с другими (например, страницей запроса),
+     * которые не должны перекрывать значение, уже записанное в кэш.
+     * Реализация по умолчанию не атомарна, потокобезопасные реализации переопределяют ее.
+     *
+     * @param k Ключ элемента.
+     * @param v Значение элемента.
+     */
+    default void putIfAbsent(K k, V v) {
+        if (!containsKey(k)) {
+            put(k, v);
+        }
+    }
+
+    /**
+     * Добавляет или обновляет несколько элементов.
+     * Реализации, для которых каждая запись имеет накладные расходы (например, рассылку инвалидаций),
+     * переопределяют метод, чтобы выполнить их один раз на пачку.
+     *
+     * @param values Элементы по ключам.
+     */
+    default void putAll(Map<? extends K, ? extends V> values) {
+        values.forEach(this::put);
+    }
+
     /**
      * Возвращает все значения из кэша.
      *
@@ -45,6 +108,15 @@ public interface AbstractCache<K, V> {
      */
     void delete(K key);
 
+    /**
+     * Удаляет несколько элементов по ключам.
+     *
+     * @param keys Ключи элементов.
+     */
+    default void deleteAll(Collection<? extends K> keys) {
+        keys.forEach(this::delete);
+    }
+
     /**
      * Проверяет, существует ли элемент с заданным ключом в кэше.
      *
@@ -52,4 +124,53 @@ public interface AbstractCache<K, V> {
      * @return true, если элемент существует, иначе false.
      */
     boolean containsKey(K id);
+
+    /**
+     * Возвращает текущее количество элементов в кэше.
+     *
+     * @return Количество элементов.
+     */
+    default int size() {
+        return getAllValues().size();
+    }
+
+    /**
+     * Возвращает количество элементов, вытесненных из кэша при нехватке места с момента его создания.
+     * Реализации, которые не учитывают вытеснения, возвращают 0.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    default long evictionCount() {
+        return 0;
+    }
+
+    /**
+     * Возвращает количество элементов, удаленных из кэша из-за истечения времени жизни с момента его создания.
+     * Реализации без времени жизни элементов возвращают 0.
+     *
+     * @return Количество истекших элементов.
+     */
+    default long expirationCount() {
+        return 0;
+    }
+
+    /**
+     * Возвращает суммарный вес элементов кэша.
+     * Для кэшей без {@link by.alex.newsappmicriservice.cache.weigher.Weigher} вес каждого элемента равен 1.
+     *
+     * @return Суммарный вес элементов.
+     */
+    default long weightedSize() {
+        return size();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов, вытесненных из кэша при нехватке места с момента его создания.
+     * Реализации, которые не учитывают вытеснения, возвращают 0.
+     *
+     * @return Суммарный вес вытесненных элементов.
+     */
+    default long evictedWeight() {
+        return 0;
+    }
 }
@@ -0,0 +1,144 @@
+package by.alex.newsappmicriservice.cache;
+
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный по размеру кэш ключей, для которых известно, что значения не существует.
+ * Запись живет не дольше заданного времени, после чего ключ снова проверяется в источнике данных.
+ * Используется, чтобы повторные запросы несуществующих id не обращались каждый раз в базу данных.
+ * Вместе с ключом запоминается сообщение исключения источника, чтобы ответ из кэша совпадал с ответом источника.
+ *
+ * @param <K> Тип ключей.
+ */
+public class NegativeCache<K> {
+
+    /**
+     * Ключи и записи об отсутствии значения.
+     */
+    private final ConcurrentLRUCache<K, Missing> expirations;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Конструктор для создания нового экземпляра NegativeCache.
+     *
+     * @param capacity Максимальное количество запоминаемых ключей.
+     * @param ttl      Время жизни записи.
+     */
+    public NegativeCache(int capacity, Duration ttl) {
+        this(capacity, ttl, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра NegativeCache с заданным источником времени.
+     *
+     * @param capacity Максимальное количество запоминаемых ключей.
+     * @param ttl      Время жизни записи.
+     * @param ticker   Источник времени в наносекундах.
+     */
+    public NegativeCache(int capacity, Duration ttl, LongSupplier ticker) {
+        this.expirations = new ConcurrentLRUCache<>(capacity);
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Проверяет, известно ли, что значения для ключа не существует.
+     * Просроченная запись удаляется.
+     *
+     * @param key Ключ элемента.
+     * @return true, если ключ отмечен как отсутствующий и запись не истекла.
+     */
+    public boolean isMissing(K key) {
+        return getMissing(key) != null;
+    }
+
+    /**
+     * Возвращает запись об отсутствии значения для ключа. Просроченная запись удаляется.
+     *
+     * @param key Ключ элемента.
+     * @return Запись об отсутствии значения или null, если ключ не отмечен как отсутствующий или запись истекла.
+     */
+    public Missing getMissing(K key) {
+        Missing missing = expirations.get(key);
+        if (missing != null) {
+            if (ticker.getAsLong() - missing.expiresAt() < 0) {
+                hits.increment();
+                return missing;
+            }
+            expirations.delete(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Запоминает, что значения для ключа не существует.
+     *
+     * @param key Ключ элемента.
+     */
+    public void markMissing(K key) {
+        markMissing(key, null);
+    }
+
+    /**
+     * Запоминает, что значения для ключа не существует, вместе с сообщением исключения источника.
+     *
+     * @param key     Ключ элемента.
+     * @param message Сообщение исключения, выброшенного источником данных.
+     */
+    public void markMissing(K key, String message) {
+        expirations.put(key, new Missing(ticker.getAsLong() + ttlNanos, message));
+    }
+
+    /**
+     * Удаляет ключ из кэша, например после создания значения с этим ключом.
+     *
+     * @param key Ключ элемента.
+     */
+    public void invalidate(K key) {
+        expirations.delete(key);
+    }
+
+    /**
+     * Возвращает количество запросов, для которых отсутствие значения было найдено в кэше.
+     *
+     * @return Количество попаданий.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество запросов, для которых отсутствие значения не было найдено в кэше.
+     *
+     * @return Количество промахов.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество запомненных ключей, включая еще не удаленные просроченные.
+     *
+     * @return Количество ключей.
+     */
+    public int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Запись об отсутствии значения.
+     *
+     * @param expiresAt Момент истечения записи в наносекундах по ticker.
+     * @param message   Сообщение исключения, выброшенного источником данных, или null.
+     */
+    public record Missing(long expiresAt, String message) {
+    }
+}
@@ -0,0 +1,172 @@
+package by.alex.newsappmicriservice.cache;
+
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Кэш результатов запросов списков: по операции и ее аргументам хранит список ключей (id),
+ * а сами значения берутся из кэша сущностей.
+ * Инвалидация выполняется счетчиками поколений без обхода записей:
+ * <ul>
+ *     <li>поколение состава увеличивается при создании и удалении и делает недействительными все запросы;</li>
+ *     <li>поколение содержимого увеличивается при изменении и делает недействительными только запросы,
+ *     результат которых зависит от содержимого (например, полнотекстовый поиск).</li>
+ * </ul>
+ * Запись сохраняется с поколениями, прочитанными до выполнения запроса, поэтому результат запроса,
+ * выполнявшегося одновременно с изменением, не попадает в кэш как актуальный.
+ * Поколения локальны для реплики, изменения на других репликах видны после истечения времени жизни.
+ */
+public class QueryCache {
+
+    private final ConcurrentLRUCache<Key, Entry> entries;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final AtomicLong structureGeneration = new AtomicLong();
+    private final AtomicLong contentGeneration = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Конструктор для создания нового экземпляра QueryCache.
+     *
+     * @param capacity Максимальное количество запоминаемых запросов.
+     * @param ttl      Время жизни результата запроса.
+     */
+    public QueryCache(int capacity, Duration ttl) {
+        this(capacity, ttl, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра QueryCache с заданным источником времени.
+     *
+     * @param capacity Максимальное количество запоминаемых запросов.
+     * @param ttl      Время жизни результата запроса.
+     * @param ticker   Источник времени в наносекундах.
+     */
+    public QueryCache(int capacity, Duration ttl, LongSupplier ticker) {
+        this.entries = new ConcurrentLRUCache<>(capacity);
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Возвращает текущие поколения. Читаются до выполнения запроса и передаются в {@link #put}.
+     *
+     * @return Текущие поколения.
+     */
+    public Generation generation() {
+        return new Generation(structureGeneration.get(), contentGeneration.get());
+    }
+
+    /**
+     * Получает список ключей, сохраненный для запроса. Устаревшая или просроченная запись удаляется.
+     *
+     * @param key              Ключ запроса.
+     * @param dependsOnContent true, если результат запроса меняется при изменении содержимого значений.
+     * @return Список ключей или null, если актуального результата нет.
+     */
+    public List<?> get(Key key, boolean dependsOnContent) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (ticker.getAsLong() - entry.expiresAt < 0
+                    && entry.generation.structure == structureGeneration.get()
+                    && (!dependsOnContent || entry.generation.content == contentGeneration.get())) {
+                hits.increment();
+                return entry.keys;
+            }
+            entries.delete(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Сохраняет список ключей для запроса.
+     *
+     * @param key        Ключ запроса.
+     * @param keys       Ключи значений результата.
+     * @param generation Поколения, прочитанные до выполнения запроса.
+     */
+    public void put(Key key, List<?> keys, Generation generation) {
+        entries.put(key, new Entry(List.copyOf(keys), generation, ticker.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Делает недействительными все запросы, например после создания или удаления значения.
+     */
+    public void invalidateAll() {
+        structureGeneration.incrementAndGet();
+    }
+
+    /**
+     * Делает недействительными запросы, зависящие от содержимого, например после изменения значения.
+     */
+    public void invalidateContent() {
+        contentGeneration.incrementAndGet();
+    }
+
+    /**
+     * Возвращает количество запросов, результат которых был найден в кэше.
+     *
+     * @return Количество попаданий.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество запросов, результат которых не был найден в кэше.
+     *
+     * @return Количество промахов.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество запомненных запросов, включая еще не удаленные устаревшие.
+     *
+     * @return Количество запросов.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Ключ запроса: имя операции и ее аргументы.
+     *
+     * @param operation Имя операции.
+     * @param args      Аргументы операции.
+     */
+    public record Key(String operation, List<Object> args) {
+
+        /**
+         * Создает ключ запроса.
+         *
+         * @param operation Имя операции.
+         * @param args      Аргументы операции, допускаются null.
+         * @return Ключ запроса.
+         */
+        public static Key of(String operation, Object... args) {
+            return new Key(operation, Arrays.asList(args.clone()));
+        }
+    }
+
+    /**
+     * Поколения состава и содержимого на момент чтения.
+     *
+     * @param structure Поколение состава.
+     * @param content   Поколение содержимого.
+     */
+    public record Generation(long structure, long content) {
+    }
+
+    private record Entry(List<?> keys, Generation generation, long expiresAt) {
+    }
+}
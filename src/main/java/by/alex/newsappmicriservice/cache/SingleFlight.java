@@ -0,0 +1,133 @@
+package by.alex.newsappmicriservice.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Объединяет одновременные загрузки одного и того же ключа.
+ * Первый поток выполняет загрузку, остальные потоки, запросившие тот же ключ,
+ * ждут ее результата (или исключения) вместо повторного обращения к источнику данных.
+ * <p>
+ * Кэш вызывает {@link #invalidate(Object)} перед каждой записью и удалением ключа. Загрузка, во время
+ * которой ключ был записан или удален, могла прочитать значение до изменения, поэтому ее результат
+ * возвращается ожидающим потокам, но не сохраняется в кэш.
+ *
+ * @param <K> Тип ключей.
+ * @param <V> Тип загружаемых значений.
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Загрузки, выполняющиеся в данный момент.
+     */
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Получает значение из кэша, а при его отсутствии загружает и сохраняет его в кэш,
+     * если ключ не был записан или удален во время загрузки.
+     * Если загрузка этого ключа уже выполняется, присоединяется к ней.
+     *
+     * @param key     Ключ элемента.
+     * @param cached  Функция чтения значения из кэша без загрузки.
+     * @param loader  Функция загрузки значения.
+     * @param install Функция сохранения загруженного значения в кэш.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    public V load(K key, Function<? super K, ? extends V> cached, Function<? super K, ? extends V> loader,
+                  BiConsumer<? super K, ? super V> install) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            V value = cached.apply(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    flight.install(key, value, install);
+                }
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Отмечает выполняющуюся загрузку ключа как устаревшую, чтобы ее результат не попал в кэш.
+     * Вызывается до записи или удаления ключа в кэше.
+     *
+     * @param key Ключ элемента.
+     */
+    public void invalidate(K key) {
+        Flight<V> flight = inFlight.get(key);
+        if (flight != null) {
+            flight.invalidate();
+        }
+    }
+
+    /**
+     * Возвращает количество загрузок, выполняющихся в данный момент.
+     *
+     * @return Количество загрузок.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняющаяся загрузка. Сохранение результата и отметка об устаревании выполняются под одной блокировкой,
+     * поэтому запись, начавшаяся после сохранения, всегда перезаписывает загруженное значение.
+     * Используется ReentrantLock, а не synchronized, чтобы сохранение в общий кэш не закрепляло виртуальный поток.
+     *
+     * @param <V> Тип загружаемого значения.
+     */
+    private static final class Flight<V> extends CompletableFuture<V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean invalidated;
+
+        private void invalidate() {
+            lock.lock();
+            try {
+                invalidated = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private <K> void install(K key, V value, BiConsumer<? super K, ? super V> install) {
+            lock.lock();
+            try {
+                if (!invalidated) {
+                    install.accept(key, value);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
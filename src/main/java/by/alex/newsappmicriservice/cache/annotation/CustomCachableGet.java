@@ -1,14 +1,49 @@
 package by.alex.newsappmicriservice.cache.annotation;
 
+import by.bulbach.exceptionspringbootstarter.exception.NewsNotFoundException;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 /**
  * Данная аннотация выполняет роль маркера Get метода при использовании
- *  Spring AOP.
+ *  Spring AOP. Результат метода сохраняется в кэш с именем {@link #cacheName()}
+ *  по ключу, вычисленному выражением {@link #key()} (см. {@link by.alex.newsappmicriservice.cache.key.KeyExtractors}).
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
-public @interface CustomCachableGet{
+public @interface CustomCachableGet {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам метода.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#p0";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.NegativeCache}, в котором запоминаются ключи,
+     * для которых метод выбросил исключение {@link #missingException()}. Пустая строка отключает
+     * негативное кэширование.
+     *
+     * @return Имя негативного кэша.
+     */
+    String missingCacheName() default "";
+
+    /**
+     * Исключение, которым метод сообщает об отсутствии значения. Для ключа из негативного кэша
+     * выбрасывается новое исключение этого типа с сообщением исключения, выброшенного методом,
+     * поэтому тип должен иметь публичный конструктор с одним параметром String.
+     *
+     * @return Тип исключения об отсутствии значения.
+     */
+    Class<? extends RuntimeException> missingException() default NewsNotFoundException.class;
 }
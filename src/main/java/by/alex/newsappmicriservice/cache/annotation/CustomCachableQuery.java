@@ -0,0 +1,45 @@
+package by.alex.newsappmicriservice.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Данная аннотация выполняет роль маркера метода, возвращающего коллекцию значений,
+ * результат которого кэшируется как список ключей при использовании Spring AOP.
+ * Ключ запроса - имя метода и его аргументы, значения берутся из кэша {@link #cacheName()}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CustomCachableQuery {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}.
+     *
+     * @return Имя кэша результатов запросов.
+     */
+    String queryCacheName() default "newsQueryCache";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}, из которого берутся значения.
+     *
+     * @return Имя кэша значений.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа значения в кэше {@link #cacheName()} по элементу результата ({@code #result}).
+     *
+     * @return Выражение ключа значения.
+     */
+    String key() default "#result.id()";
+
+    /**
+     * Зависит ли результат от содержимого значений. Если false, изменение значения
+     * не делает результат недействительным, так как значения берутся из кэша.
+     *
+     * @return true, если результат зависит от содержимого значений.
+     */
+    boolean dependsOnContent() default true;
+}
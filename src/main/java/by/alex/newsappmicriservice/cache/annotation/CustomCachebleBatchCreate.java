@@ -0,0 +1,44 @@
+package by.alex.newsappmicriservice.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+/**
+ * Данная аннотация выполняет роль маркера пакетного Create метода при использовании
+ *  Spring AOP. Метод возвращает коллекцию созданных значений, которые сохраняются в кэш
+ *  с именем {@link #cacheName()} одной операцией {@link by.alex.newsappmicriservice.cache.AbstractCache#putAll}.
+ *  Выражение {@link #key()} вычисляется для каждого значения, {@code #result} в нем - само значение.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CustomCachebleBatchCreate {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам метода и одному созданному значению.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#result.id()";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.NegativeCache}, из которого удаляются ключи созданных значений.
+     *
+     * @return Имя негативного кэша или пустая строка.
+     */
+    String missingCacheName() default "";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, все результаты которого становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
+}
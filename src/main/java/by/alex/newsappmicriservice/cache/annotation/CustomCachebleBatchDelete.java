@@ -0,0 +1,37 @@
+package by.alex.newsappmicriservice.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+/**
+ * Данная аннотация выполняет роль маркера пакетного Delete метода при использовании
+ *  Spring AOP. Значения удаляются из кэша с именем {@link #cacheName()} одной операцией
+ *  {@link by.alex.newsappmicriservice.cache.AbstractCache#deleteAll} по коллекции ключей,
+ *  вычисленной выражением {@link #keys()}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CustomCachebleBatchDelete {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение коллекции ключей по аргументам метода.
+     *
+     * @return Выражение ключей.
+     */
+    String keys() default "#p0";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, все результаты которого становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
+}
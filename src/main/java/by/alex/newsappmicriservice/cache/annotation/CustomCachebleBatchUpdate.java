@@ -0,0 +1,38 @@
+package by.alex.newsappmicriservice.cache.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+/**
+ * Данная аннотация выполняет роль маркера пакетного Update метода при использовании
+ *  Spring AOP. Метод возвращает коллекцию обновленных значений, которые сохраняются в кэш
+ *  с именем {@link #cacheName()} одной операцией {@link by.alex.newsappmicriservice.cache.AbstractCache#putAll}.
+ *  Выражение {@link #key()} вычисляется для каждого значения, {@code #result} в нем - само значение.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CustomCachebleBatchUpdate {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам метода и одному обновленному значению.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#result.id()";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, результаты которого,
+     * зависящие от содержимого значений, становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
+}
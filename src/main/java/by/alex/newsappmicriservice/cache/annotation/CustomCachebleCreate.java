@@ -6,9 +6,38 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 /**
  * Данная аннотация выполняет роль маркера Create метода при использовании
- *  Spring AOP.
+ *  Spring AOP. Созданное значение сохраняется в кэш с именем {@link #cacheName()}
+ *  по ключу, вычисленному выражением {@link #key()}.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface CustomCachebleCreate {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам и результату метода.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#result.id()";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.NegativeCache}, из которого удаляется ключ созданного значения.
+     *
+     * @return Имя негативного кэша или пустая строка.
+     */
+    String missingCacheName() default "";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, все результаты которого становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
 }
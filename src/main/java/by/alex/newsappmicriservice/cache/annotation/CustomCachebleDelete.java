@@ -6,9 +6,31 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 /**
  * Данная аннотация выполняет роль маркера Delete метода при использовании
- *  Spring AOP.
+ *  Spring AOP. Значение удаляется из кэша с именем {@link #cacheName()}
+ *  по ключу, вычисленному выражением {@link #key()}.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface CustomCachebleDelete {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам метода.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#p0";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, все результаты которого становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
 }
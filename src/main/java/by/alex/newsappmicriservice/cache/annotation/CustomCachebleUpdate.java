@@ -6,9 +6,32 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 /**
  * Данная аннотация выполняет роль маркера Update метода при использовании
- *  Spring AOP.
+ *  Spring AOP. Обновленное значение сохраняется в кэш с именем {@link #cacheName()}
+ *  по ключу, вычисленному выражением {@link #key()}.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface CustomCachebleUpdate {
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.AbstractCache}.
+     *
+     * @return Имя кэша.
+     */
+    String cacheName() default "newsCache";
+
+    /**
+     * Выражение ключа по аргументам и результату метода.
+     *
+     * @return Выражение ключа.
+     */
+    String key() default "#result.id()";
+
+    /**
+     * Имя бина {@link by.alex.newsappmicriservice.cache.QueryCache}, результаты которого,
+     * зависящие от содержимого значений, становятся недействительными.
+     *
+     * @return Имя кэша результатов запросов или пустая строка.
+     */
+    String queryCacheName() default "";
 }
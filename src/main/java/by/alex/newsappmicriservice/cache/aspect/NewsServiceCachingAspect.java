@@ -1,127 +1,475 @@
 package by.alex.newsappmicriservice.cache.aspect;
 
 import by.alex.newsappmicriservice.cache.AbstractCache;
-import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.cache.NegativeCache;
+import by.alex.newsappmicriservice.cache.QueryCache;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachableGet;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachableQuery;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchCreate;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchDelete;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchUpdate;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleCreate;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleDelete;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleUpdate;
+import by.alex.newsappmicriservice.cache.key.KeyExtractor;
+import by.alex.newsappmicriservice.cache.key.KeyExtractors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Аспект для кеширования операций сервиса новостей.
+ * Аспект для кеширования операций сервисов.
+ * Кэши выбираются по имени бина из аннотаций, ключи вычисляются заранее подготовленными
+ * {@link KeyExtractor} (см. {@link KeyExtractors}), поэтому выражение ключа разбирается один раз на метод.
+ * Аспект выполняется снаружи транзакций сервисов, поэтому кэши изменяются после фиксации транзакции.
+ * Порядок ниже {@link org.springframework.aop.interceptor.ExposeInvocationInterceptor}: иначе аннотации
+ * методов не связываются с параметрами советов.
  */
 @Slf4j
 @Aspect
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 @RequiredArgsConstructor
 public class NewsServiceCachingAspect {
 
-    private final AbstractCache<Long, ResponseNewsDto> newsCache;
+    private final Map<String, AbstractCache<?, ?>> caches;
+
+    private final Map<String, NegativeCache<?>> negativeCaches;
+
+    private final Map<String, QueryCache> queryCaches;
+
+    private final KeyExtractors keyExtractors = new KeyExtractors();
+
+    private final Map<Class<? extends RuntimeException>, Constructor<? extends RuntimeException>>
+            missingExceptionConstructors = new ConcurrentHashMap<>();
 
     /**
      * Pointcut, которая соответствует выполнению любого метода, аннотированного
-     * с {@link by.alex.newsappmicriservice.cache.annotation.CustomCachableGet}.
+     * с {@link CustomCachableGet}.
+     *
+     * @param get аннотация метода
      */
-    @Pointcut("@annotation(by.alex.newsappmicriservice.cache.annotation.CustomCachableGet)")
-    public void getId() {
+    @Pointcut("@annotation(get)")
+    public void getId(CustomCachableGet get) {
     }
 
     /**
      * Совет, который кеширует результат выполнения метода, если он еще не кеширован.
+     * Кэш опрашивается один раз через {@link AbstractCache#getOrLoad}, поэтому одновременные
+     * промахи по одному ключу ожидают один общий вызов метода.
+     * Если задан негативный кэш, ключи, для которых метод выбросил исключение
+     * {@link CustomCachableGet#missingException()}, запоминаются в нем вместе с сообщением исключения,
+     * и повторные запросы этих ключей не доходят до источника данных, пока запись не истечет:
+     * вместо этого выбрасывается новое исключение того же типа с тем же сообщением.
+     *
+     * @param joinPoint точка соединения для advice метода
+     * @param get       аннотация метода
+     * @return результат выполнения метода
+     */
+    @Around(value = "getId(get)", argNames = "joinPoint,get")
+    public Object cacheGet(ProceedingJoinPoint joinPoint, CustomCachableGet get) {
+
+        Object key = key(joinPoint, get.key(), null);
+        NegativeCache<Object> missingCache = get.missingCacheName().isEmpty()
+                ? null
+                : negativeCache(get.missingCacheName());
+
+        if (missingCache != null) {
+            NegativeCache.Missing missing = missingCache.getMissing(key);
+            if (missing != null) {
+                throw missingException(get.missingException(), missing.message());
+            }
+        }
+        try {
+            return cache(get.cacheName()).getOrLoad(key, k -> {
+                Object value = proceed(joinPoint);
+                log.debug("Cache miss: {} with key = {} loaded", get.cacheName(), k);
+                return value;
+            });
+        } catch (RuntimeException e) {
+            if (missingCache != null && get.missingException().isInstance(e)) {
+                missingCache.markMissing(key, e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Создает исключение об отсутствии значения для ключа из негативного кэша.
+     *
+     * @param type    тип исключения
+     * @param message сообщение исключения, выброшенного методом
+     * @return исключение
+     */
+    private RuntimeException missingException(Class<? extends RuntimeException> type, String message) {
+        try {
+            return missingExceptionConstructors.computeIfAbsent(type, NewsServiceCachingAspect::messageConstructor)
+                    .newInstance(message);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    private static Constructor<? extends RuntimeException> messageConstructor(Class<? extends RuntimeException> type) {
+        try {
+            return type.getConstructor(String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(type.getName() + " has no public constructor with a String message", e);
+        }
+    }
+
+    /**
+     * Выполняет метод сервиса внутри загрузчика кэша.
+     * Проверяемые исключения, которые метод не объявляет, оборачиваются в {@link UndeclaredThrowableException}.
+     *
+     * @param joinPoint точка соединения для advice метода
+     * @return результат выполнения метода
+     */
+    private Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Pointcut, которая соответствует выполнению любого метода, аннотированного
+     * с {@link CustomCachableQuery}.
+     *
+     * @param query аннотация метода
+     */
+    @Pointcut("@annotation(query)")
+    public void query(CustomCachableQuery query) {
+    }
+
+    /**
+     * Совет, который кеширует результат запроса списка как список ключей значений.
+     * При попадании значения берутся из кэша значений, и если хотя бы одного из них там нет,
+     * запрос выполняется заново. Значения из результата выполненного запроса добавляются в кэш значений
+     * через {@link AbstractCache#putIfAbsent}, если их там еще нет, и не учитываются в статистике обращений к нему.
      *
      * @param joinPoint точка соединения для advice метода
+     * @param query     аннотация метода
      * @return результат выполнения метода
      * @throws Throwable если возникает ошибка во время выполнения метода
      */
-    @Around(value = "getId()")
-    public Object cacheHouse(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around(value = "query(query)", argNames = "joinPoint,query")
+    public Object cacheQuery(ProceedingJoinPoint joinPoint, CustomCachableQuery query) throws Throwable {
+
+        QueryCache queryCache = queryCache(query.queryCacheName());
+        AbstractCache<Object, Object> cache = cache(query.cacheName());
+        QueryCache.Key queryKey = QueryCache.Key.of(joinPoint.getSignature().getName(), joinPoint.getArgs());
+        List<?> keys = queryCache.get(queryKey, query.dependsOnContent());
+        if (keys != null) {
+            List<Object> cached = resolve(cache, keys);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        Long id = (Long) joinPoint.getArgs()[0];
+        QueryCache.Generation generation = queryCache.generation();
+        Collection<?> result = (Collection<?>) joinPoint.proceed();
+        KeyExtractor valueKey = keyExtractor(joinPoint, query.key());
+        List<Object> resultKeys = new ArrayList<>(result.size());
+        for (Object value : result) {
+            Object key = valueKey.extract(joinPoint.getArgs(), value);
+            cache.putIfAbsent(key, value);
+            resultKeys.add(key);
+        }
+        queryCache.put(queryKey, resultKeys, generation);
+        return result;
+    }
 
-        if (newsCache.containsKey(id)) {
-            return newsCache.get(id);
-        } else {
-            ResponseNewsDto news = (ResponseNewsDto) joinPoint.proceed();
-            log.info("Founded cache News in repository");
-            newsCache.put(id, news);
-            return news;
+    /**
+     * Получает значения из кэша в порядке ключей.
+     *
+     * @param cache кэш значений
+     * @param keys  ключи значений
+     * @return список значений или null, если какого-либо значения нет в кэше
+     */
+    private static List<Object> resolve(AbstractCache<Object, Object> cache, List<?> keys) {
+        List<Object> result = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            Object value = cache.get(key);
+            if (value == null) {
+                return null;
+            }
+            result.add(value);
         }
+        return result;
     }
 
     /**
      * Pointcut, которая соответствует выполнению любого метода, аннотированного
-     * с {@link by.alex.newsappmicriservice.cache.annotation.CustomCachebleCreate}.
+     * с {@link CustomCachebleCreate}.
+     *
+     * @param create аннотация метода
      */
-    @Pointcut("@annotation(by.alex.newsappmicriservice.cache.annotation.CustomCachebleCreate) ")
-    public void create() {
+    @Pointcut("@annotation(create)")
+    public void create(CustomCachebleCreate create) {
     }
 
     /**
-     * Совет, который кеширует созданную новость.
+     * Совет, который кеширует созданное значение, удаляет его ключ из негативного кэша
+     * и делает недействительными кэшированные результаты запросов.
      *
      * @param joinPoint точка соединения для советного метода
+     * @param create    аннотация метода
      * @return результат выполнения метода
      * @throws Throwable если возникает ошибка во время выполнения метода
      */
-    @Around(value = "create()")
-    public Object cacheCreate(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around(value = "create(create)", argNames = "joinPoint,create")
+    public Object cacheCreate(ProceedingJoinPoint joinPoint, CustomCachebleCreate create) throws Throwable {
 
-        ResponseNewsDto createNews = (ResponseNewsDto) joinPoint.proceed();
-        log.info("Created cache News " + createNews);
-        newsCache.put(createNews.id(), createNews);
+        Object created = joinPoint.proceed();
+        Object key = key(joinPoint, create.key(), created);
+        log.info("Created cache {} with key = {}", create.cacheName(), key);
+        if (!create.missingCacheName().isEmpty()) {
+            negativeCache(create.missingCacheName()).invalidate(key);
+        }
+        cache(create.cacheName()).put(key, created);
+        if (!create.queryCacheName().isEmpty()) {
+            queryCache(create.queryCacheName()).invalidateAll();
+        }
 
-        return createNews;
+        return created;
     }
 
     /**
      * Pointcut, которая соответствует выполнению любого метода, аннотированного
-     * с {@link by.alex.newsappmicriservice.cache.annotation.CustomCachebleUpdate}.
+     * с {@link CustomCachebleUpdate}.
+     *
+     * @param update аннотация метода
      */
-    @Pointcut("@annotation(by.alex.newsappmicriservice.cache.annotation.CustomCachebleUpdate)")
-    public void update() {
+    @Pointcut("@annotation(update)")
+    public void update(CustomCachebleUpdate update) {
     }
 
     /**
-     * Совет, который кеширует обновленную новость.
+     * Совет, который кеширует обновленное значение и делает недействительными
+     * результаты запросов, зависящие от содержимого значений.
      *
      * @param joinPoint точка соединения для советного метода
+     * @param update    аннотация метода
      * @return результат выполнения метода
      * @throws Throwable если возникает ошибка во время выполнения метода
      */
-    @Around(value = "update()")
-    public Object cacheUpdate(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around(value = "update(update)", argNames = "joinPoint,update")
+    public Object cacheUpdate(ProceedingJoinPoint joinPoint, CustomCachebleUpdate update) throws Throwable {
 
-        ResponseNewsDto updateNews = (ResponseNewsDto) joinPoint.proceed();
-        log.info("Updated cache News " + updateNews);
-        newsCache.put(updateNews.id(), updateNews);
-        return updateNews;
+        Object updated = joinPoint.proceed();
+        Object key = key(joinPoint, update.key(), updated);
+        log.info("Updated cache {} with key = {}", update.cacheName(), key);
+        cache(update.cacheName()).put(key, updated);
+        if (!update.queryCacheName().isEmpty()) {
+            queryCache(update.queryCacheName()).invalidateContent();
+        }
+        return updated;
     }
 
     /**
      * Pointcut, которая соответствует выполнению любого метода, аннотированного
-     * с {@link by.alex.newsappmicriservice.cache.annotation.CustomCachebleDelete}.
+     * с {@link CustomCachebleDelete}.
+     *
+     * @param delete аннотация метода
      */
-    @Pointcut("@annotation(by.alex.newsappmicriservice.cache.annotation.CustomCachebleDelete)")
-    public void delete() {
+    @Pointcut("@annotation(delete)")
+    public void delete(CustomCachebleDelete delete) {
     }
 
     /**
-     * Совет, который удаляет новость из кеша.
+     * Совет, который удаляет значение из кеша и делает недействительными кэшированные результаты запросов.
+     * Значение удаляется до выполнения метода и еще раз после его успешного завершения: чтение, выполненное
+     * до фиксации транзакции, могло снова поместить в кэш удаляемое значение.
      *
      * @param joinPoint точка соединения для советного метода
+     * @param delete    аннотация метода
      * @return результат выполнения метода
      * @throws Throwable если возникает ошибка во время выполнения метода
      */
-    @Around(value = "delete()")
-    public Object cacheDelete(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around(value = "delete(delete)", argNames = "joinPoint,delete")
+    public Object cacheDelete(ProceedingJoinPoint joinPoint, CustomCachebleDelete delete) throws Throwable {
 
-        Long id = (Long) joinPoint.getArgs()[0];
-        log.info("Deleted cache News with id = " + id);
-        newsCache.delete(id);
+        Object key = key(joinPoint, delete.key(), null);
+        AbstractCache<Object, Object> cache = cache(delete.cacheName());
+        cache.delete(key);
+
+        Object result = joinPoint.proceed();
+        log.info("Deleted cache {} with key = {}", delete.cacheName(), key);
+        cache.delete(key);
+        if (!delete.queryCacheName().isEmpty()) {
+            queryCache(delete.queryCacheName()).invalidateAll();
+        }
+        return result;
+    }
+
+    /**
+     * Pointcut, которая соответствует выполнению любого метода, аннотированного
+     * с {@link CustomCachebleBatchCreate}.
+     *
+     * @param create аннотация метода
+     */
+    @Pointcut("@annotation(create)")
+    public void batchCreate(CustomCachebleBatchCreate create) {
+    }
 
-        return joinPoint.proceed();
+    /**
+     * Совет, который кеширует созданные значения одной операцией, удаляет их ключи из негативного кэша
+     * и один раз на пачку делает недействительными кэшированные результаты запросов.
+     *
+     * @param joinPoint точка соединения для советного метода
+     * @param create    аннотация метода
+     * @return результат выполнения метода
+     * @throws Throwable если возникает ошибка во время выполнения метода
+     */
+    @Around(value = "batchCreate(create)", argNames = "joinPoint,create")
+    public Object cacheBatchCreate(ProceedingJoinPoint joinPoint, CustomCachebleBatchCreate create) throws Throwable {
+
+        Collection<?> created = (Collection<?>) joinPoint.proceed();
+        Map<Object, Object> values = byKey(joinPoint, create.key(), created);
+        log.info("Created cache {} with {} keys", create.cacheName(), values.size());
+        if (!create.missingCacheName().isEmpty()) {
+            NegativeCache<Object> missingCache = negativeCache(create.missingCacheName());
+            values.keySet().forEach(missingCache::invalidate);
+        }
+        cache(create.cacheName()).putAll(values);
+        if (!create.queryCacheName().isEmpty()) {
+            queryCache(create.queryCacheName()).invalidateAll();
+        }
+        return created;
+    }
+
+    /**
+     * Pointcut, которая соответствует выполнению любого метода, аннотированного
+     * с {@link CustomCachebleBatchUpdate}.
+     *
+     * @param update аннотация метода
+     */
+    @Pointcut("@annotation(update)")
+    public void batchUpdate(CustomCachebleBatchUpdate update) {
+    }
+
+    /**
+     * Совет, который кеширует обновленные значения одной операцией и один раз на пачку делает
+     * недействительными результаты запросов, зависящие от содержимого значений.
+     *
+     * @param joinPoint точка соединения для советного метода
+     * @param update    аннотация метода
+     * @return результат выполнения метода
+     * @throws Throwable если возникает ошибка во время выполнения метода
+     */
+    @Around(value = "batchUpdate(update)", argNames = "joinPoint,update")
+    public Object cacheBatchUpdate(ProceedingJoinPoint joinPoint, CustomCachebleBatchUpdate update) throws Throwable {
+
+        Collection<?> updated = (Collection<?>) joinPoint.proceed();
+        Map<Object, Object> values = byKey(joinPoint, update.key(), updated);
+        log.info("Updated cache {} with {} keys", update.cacheName(), values.size());
+        cache(update.cacheName()).putAll(values);
+        if (!update.queryCacheName().isEmpty()) {
+            queryCache(update.queryCacheName()).invalidateContent();
+        }
+        return updated;
+    }
+
+    /**
+     * Pointcut, которая соответствует выполнению любого метода, аннотированного
+     * с {@link CustomCachebleBatchDelete}.
+     *
+     * @param delete аннотация метода
+     */
+    @Pointcut("@annotation(delete)")
+    public void batchDelete(CustomCachebleBatchDelete delete) {
+    }
+
+    /**
+     * Совет, который удаляет значения из кеша одной операцией и делает недействительными
+     * кэшированные результаты запросов. Как и в {@link #cacheDelete}, значения удаляются до выполнения метода
+     * и еще раз после его успешного завершения.
+     *
+     * @param joinPoint точка соединения для советного метода
+     * @param delete    аннотация метода
+     * @return результат выполнения метода
+     * @throws Throwable если возникает ошибка во время выполнения метода
+     */
+    @Around(value = "batchDelete(delete)", argNames = "joinPoint,delete")
+    public Object cacheBatchDelete(ProceedingJoinPoint joinPoint, CustomCachebleBatchDelete delete) throws Throwable {
+
+        Collection<?> keys = (Collection<?>) key(joinPoint, delete.keys(), null);
+        AbstractCache<Object, Object> cache = cache(delete.cacheName());
+        cache.deleteAll(keys);
+
+        Object result = joinPoint.proceed();
+        log.info("Deleted cache {} with {} keys", delete.cacheName(), keys.size());
+        cache.deleteAll(keys);
+        if (!delete.queryCacheName().isEmpty()) {
+            queryCache(delete.queryCacheName()).invalidateAll();
+        }
+        return result;
+    }
+
+    /**
+     * Вычисляет ключ каждого значения из результата пакетного метода.
+     *
+     * @param joinPoint  точка соединения для советного метода
+     * @param expression выражение ключа, {@code #result} в нем - одно значение
+     * @param values     значения из результата метода
+     * @return значения по ключам в порядке результата
+     */
+    private Map<Object, Object> byKey(ProceedingJoinPoint joinPoint, String expression, Collection<?> values) {
+        KeyExtractor valueKey = keyExtractor(joinPoint, expression);
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (Object value : values) {
+            result.put(valueKey.extract(joinPoint.getArgs(), value), value);
+        }
+        return result;
+    }
+
+    private Object key(ProceedingJoinPoint joinPoint, String expression, Object result) {
+        return keyExtractor(joinPoint, expression).extract(joinPoint.getArgs(), result);
+    }
+
+    private KeyExtractor keyExtractor(ProceedingJoinPoint joinPoint, String expression) {
+        return keyExtractors.get(((MethodSignature) joinPoint.getSignature()).getMethod(), expression);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AbstractCache<Object, Object> cache(String name) {
+        return (AbstractCache<Object, Object>) required(caches, name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private NegativeCache<Object> negativeCache(String name) {
+        return (NegativeCache<Object>) required(negativeCaches, name);
+    }
+
+    private QueryCache queryCache(String name) {
+        return required(queryCaches, name);
+    }
+
+    private static <T> T required(Map<String, T> beans, String name) {
+        T bean = beans.get(name);
+        if (bean == null) {
+            throw new IllegalStateException("No cache named " + name + ", available: " + beans.keySet());
+        }
+        return bean;
     }
 }
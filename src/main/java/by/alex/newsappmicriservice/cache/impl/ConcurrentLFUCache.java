@@ -0,0 +1,558 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.SingleFlight;
+import by.alex.newsappmicriservice.cache.weigher.Weigher;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная реализация LFU (Least Frequently Used) кэша с операциями за O(1).
+ * Элементы сгруппированы в корзины по частоте, корзины образуют двусвязный список,
+ * упорядоченный по возрастанию частоты. Первая корзина всегда содержит элементы
+ * с минимальной частотой, поэтому вытеснение не требует поиска минимума,
+ * а пустые корзины удаляются сразу.
+ * <p>
+ * Чтение не берет блокировку: значение читается из {@link ConcurrentHashMap}, а обращение
+ * записывается в {@link ReadBuffer} и учитывается в частоте пачкой под блокировкой.
+ * <p>
+ * Чтобы давно популярные новости не занимали кэш навсегда, частоты периодически стареют:
+ * после заданного числа учтенных обращений частота каждого элемента делится пополам.
+ * <p>
+ * Емкость задается количеством элементов или суммарным весом, вычисляемым {@link Weigher}.
+ * Элемент тяжелее всего бюджета в кэш не попадает.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+public class ConcurrentLFUCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Во сколько раз период старения по умолчанию больше емкости кэша.
+     */
+    private static final int DEFAULT_AGING_FACTOR = 10;
+
+    /**
+     * Максимальный суммарный вес элементов кэша.
+     */
+    private final long maximumWeight;
+    /**
+     * Функция вычисления веса элемента или null, если вес каждого элемента равен 1.
+     */
+    private final Weigher<? super K, ? super V> weigher;
+    /**
+     * Количество учтенных обращений, после которого частоты делятся пополам (0 - без старения).
+     */
+    private final int agingPeriod;
+    /**
+     * Используется для хранения ключей и узлов с значениями элементов кэша.
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> cache;
+    /**
+     * Голова списка корзин частот: frequencyHead.next - корзина с минимальной частотой.
+     */
+    private final FrequencyNode<K, V> frequencyHead;
+    /**
+     * Загрузки при промахе, выполняющиеся в данный момент.
+     */
+    private final SingleFlight<K, V> loads;
+    /**
+     * Блокировка, под которой изменяются корзины частот.
+     */
+    private final ReentrantLock evictionLock;
+    /**
+     * Буфер обращений, ожидающих учета в частоте.
+     */
+    private final ReadBuffer<Node<K, V>> readBuffer;
+    /**
+     * Суммарный вес элементов в корзинах, изменяется под evictionLock.
+     */
+    private volatile long weightedSize;
+    /**
+     * Суммарный вес вытесненных элементов, изменяется под evictionLock.
+     */
+    private volatile long evictedWeight;
+    /**
+     * Количество вытесненных элементов, изменяется под evictionLock.
+     */
+    private volatile long evictionCount;
+    /**
+     * Количество учтенных обращений с последнего старения, изменяется под evictionLock.
+     */
+    private int hitsSinceAging;
+
+    /**
+     * Конструктор для создания нового экземпляра ConcurrentLFUCache с заданной емкостью.
+     * Период старения равен десятикратной емкости кэша.
+     *
+     * @param capacity Максимальный размер кэша.
+     */
+    public ConcurrentLFUCache(int capacity) {
+        this(capacity, (int) Math.min(Integer.MAX_VALUE, (long) capacity * DEFAULT_AGING_FACTOR));
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра ConcurrentLFUCache с заданной емкостью и периодом старения.
+     *
+     * @param capacity    Максимальный размер кэша.
+     * @param agingPeriod Количество обращений, после которого частоты делятся пополам (0 - без старения).
+     * @throws IllegalArgumentException если емкость не положительная или период старения отрицательный.
+     */
+    public ConcurrentLFUCache(int capacity, int agingPeriod) {
+        this(capacity, null, agingPeriod);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра ConcurrentLFUCache с ограничением по суммарному весу.
+     *
+     * @param maximumWeight Максимальный суммарный вес элементов.
+     * @param weigher       Функция вычисления веса элемента.
+     * @param agingPeriod   Количество обращений, после которого частоты делятся пополам (0 - без старения).
+     * @throws IllegalArgumentException если максимальный вес не положительный или период старения отрицательный.
+     */
+    public ConcurrentLFUCache(long maximumWeight, Weigher<? super K, ? super V> weigher, int agingPeriod) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive, but was " + maximumWeight);
+        }
+        if (agingPeriod < 0) {
+            throw new IllegalArgumentException("Aging period can`t be negative, but was " + agingPeriod);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.agingPeriod = agingPeriod;
+        this.cache = new ConcurrentHashMap<>();
+        this.frequencyHead = new FrequencyNode<>(0);
+        this.frequencyHead.prev = frequencyHead;
+        this.frequencyHead.next = frequencyHead;
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer<>();
+        this.loads = new SingleFlight<>();
+    }
+
+    /**
+     * Получает значение из кэша по ключу.
+     * Обращение записывается в буфер чтения, частота увеличивается позже пачкой.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден.
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает и сохраняет его.
+     * Одновременные промахи по одному ключу ожидают одну общую загрузку.
+     * Загруженное значение не сохраняется, если во время загрузки ключ был записан или удален.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.load(key, this::peek, loader, this::put);
+    }
+
+    /**
+     * Добавляет элемент, если элемента с таким ключом нет в кэше, не отмечая обращение к элементу.
+     * Значение не сохраняется, если во время вызова ключ был записан или удален.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        loads.load(key, this::peek, k -> value, this::put);
+    }
+
+    /**
+     * Получает значение по ключу, не отмечая обращение к элементу.
+     */
+    private V peek(K key) {
+        Node<K, V> node = cache.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий.
+     * Если кэш заполнен, удаляет элемент с наименьшей частотой использования.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        loads.invalidate(key);
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> existing;
+        while ((existing = cache.putIfAbsent(key, node)) != null) {
+            if (existing.alive) {
+                existing.value = value;
+                if (weigher == null) {
+                    recordRead(existing);
+                } else {
+                    reweigh(existing);
+                }
+                return;
+            }
+            cache.remove(key, existing);
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (node.alive) {
+                node.weight = weigh(node);
+                if (node.weight > maximumWeight) {
+                    node.alive = false;
+                    cache.remove(node.key, node);
+                    return;
+                }
+                while (weightedSize + node.weight > maximumWeight) {
+                    evictFirst();
+                }
+                linkNew(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает все значения из кэша.
+     *
+     * @return Снимок коллекции значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        return cache.values().stream()
+                .map(node -> node.value)
+                .toList();
+    }
+
+    /**
+     * Удаляет элемент с наименьшей частотой использования из кэша.
+     * Среди элементов с одинаковой частотой удаляется тот, что попал в корзину раньше.
+     */
+    @Override
+    public void evict() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            evictFirst();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        loads.invalidate(key);
+        Node<K, V> node = cache.remove(key);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            node.alive = false;
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Возвращает текущее количество элементов в кэше.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов кэша.
+     *
+     * @return Суммарный вес элементов.
+     */
+    @Override
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Возвращает количество вытесненных элементов.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Возвращает суммарный вес вытесненных элементов.
+     *
+     * @return Суммарный вес вытесненных элементов.
+     */
+    @Override
+    public long evictedWeight() {
+        return evictedWeight;
+    }
+
+    /**
+     * Пересчитывает вес обновленного элемента, учитывает обращение к нему
+     * и вытесняет элементы с наименьшей частотой, если бюджет превышен.
+     *
+     * @param node Узел обновленного элемента.
+     */
+    private void reweigh(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (!node.alive || node.parent == null) {
+                return;
+            }
+            int weight = weigh(node);
+            weightedSize += weight - node.weight;
+            node.weight = weight;
+            incrementFrequency(node);
+            while (weightedSize > maximumWeight) {
+                evictFirst();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает обращение к элементу в буфер текущего потока.
+     * Если буфер заполнен и блокировка свободна, учитывает накопленные обращения.
+     *
+     * @param node Узел, к которому было обращение.
+     */
+    private void recordRead(Node<K, V> node) {
+        if (readBuffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Увеличивает частоту всех элементов из буфера чтения и при необходимости запускает старение.
+     * Вызывается только под evictionLock.
+     */
+    private void drainReadBuffer() {
+        readBuffer.drainTo(node -> {
+            if (node.alive && node.parent != null) {
+                incrementFrequency(node);
+                if (agingPeriod > 0 && ++hitsSinceAging >= agingPeriod) {
+                    age();
+                    hitsSinceAging = 0;
+                }
+            }
+        });
+    }
+
+    /**
+     * Добавляет новый элемент в корзину с частотой 1.
+     *
+     * @param node Узел элемента.
+     */
+    private void linkNew(Node<K, V> node) {
+        FrequencyNode<K, V> first = frequencyHead.next;
+        if (first == frequencyHead || first.frequency != 1) {
+            first = insertBucketAfter(frequencyHead, 1);
+        }
+        first.append(node);
+        weightedSize += node.weight;
+    }
+
+    /**
+     * Переносит элемент в корзину со следующей частотой, создавая ее при необходимости.
+     *
+     * @param node Узел элемента.
+     */
+    private void incrementFrequency(Node<K, V> node) {
+        FrequencyNode<K, V> current = node.parent;
+        if (current.frequency == Integer.MAX_VALUE) {
+            return;
+        }
+        FrequencyNode<K, V> next = current.next;
+        if (next == frequencyHead || next.frequency != current.frequency + 1) {
+            next = insertBucketAfter(current, current.frequency + 1);
+        }
+        removeFromBucket(node);
+        next.append(node);
+    }
+
+    /**
+     * Делит частоту каждой корзины пополам, объединяя корзины, частоты которых совпали.
+     * Порядок корзин при этом сохраняется, так как деление монотонно.
+     */
+    private void age() {
+        FrequencyNode<K, V> bucket = frequencyHead.next;
+        while (bucket != frequencyHead) {
+            FrequencyNode<K, V> next = bucket.next;
+            int aged = Math.max(1, bucket.frequency >>> 1);
+            FrequencyNode<K, V> previous = bucket.prev;
+            if (previous != frequencyHead && previous.frequency == aged) {
+                previous.appendAll(bucket);
+                removeBucket(bucket);
+            } else {
+                bucket.frequency = aged;
+            }
+            bucket = next;
+        }
+    }
+
+    /**
+     * Удаляет первый элемент корзины с минимальной частотой из корзины и из кэша.
+     */
+    private void evictFirst() {
+        FrequencyNode<K, V> lowest = frequencyHead.next;
+        if (lowest == frequencyHead) {
+            return;
+        }
+        Node<K, V> victim = lowest.entries.next;
+        victim.alive = false;
+        unlink(victim);
+        cache.remove(victim.key, victim);
+        evictedWeight += victim.weight;
+        evictionCount++;
+    }
+
+    private int weigh(Node<K, V> node) {
+        return weigher == null ? 1 : weigher.weigh(node.key, node.value);
+    }
+
+    /**
+     * Удаляет узел из его корзины, если он в ней находится.
+     *
+     * @param node Узел элемента.
+     */
+    private void unlink(Node<K, V> node) {
+        if (node.parent == null) {
+            return;
+        }
+        removeFromBucket(node);
+        weightedSize -= node.weight;
+    }
+
+    private void removeFromBucket(Node<K, V> node) {
+        FrequencyNode<K, V> bucket = node.parent;
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        node.parent = null;
+        if (bucket.entries.next == bucket.entries) {
+            removeBucket(bucket);
+        }
+    }
+
+    private FrequencyNode<K, V> insertBucketAfter(FrequencyNode<K, V> previous, int frequency) {
+        FrequencyNode<K, V> bucket = new FrequencyNode<>(frequency);
+        bucket.prev = previous;
+        bucket.next = previous.next;
+        previous.next.prev = bucket;
+        previous.next = bucket;
+        return bucket;
+    }
+
+    private void removeBucket(FrequencyNode<K, V> bucket) {
+        bucket.prev.next = bucket.next;
+        bucket.next.prev = bucket.prev;
+    }
+
+    /**
+     * Узел элемента кэша внутри корзины частоты.
+     * Ссылки изменяются только под evictionLock.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile boolean alive = true;
+        private int weight = 1;
+        private FrequencyNode<K, V> parent;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Корзина элементов с одинаковой частотой использования.
+     * Элементы внутри корзины хранятся в порядке добавления в кольцевом списке.
+     */
+    private static final class FrequencyNode<K, V> {
+        private final Node<K, V> entries;
+        private int frequency;
+        private FrequencyNode<K, V> prev;
+        private FrequencyNode<K, V> next;
+
+        private FrequencyNode(int frequency) {
+            this.frequency = frequency;
+            this.entries = new Node<>(null, null);
+            this.entries.prev = entries;
+            this.entries.next = entries;
+        }
+
+        private void append(Node<K, V> node) {
+            Node<K, V> tail = entries.prev;
+            node.prev = tail;
+            node.next = entries;
+            tail.next = node;
+            entries.prev = node;
+            node.parent = this;
+        }
+
+        private void appendAll(FrequencyNode<K, V> other) {
+            Node<K, V> node = other.entries.next;
+            while (node != other.entries) {
+                Node<K, V> next = node.next;
+                append(node);
+                node = next;
+            }
+            other.entries.prev = other.entries;
+            other.entries.next = other.entries;
+        }
+    }
+}
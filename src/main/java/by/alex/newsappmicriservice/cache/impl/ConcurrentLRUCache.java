@@ -0,0 +1,400 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.SingleFlight;
+import by.alex.newsappmicriservice.cache.weigher.Weigher;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная реализация LRU (Least Recently Used) кэша.
+ * Значения хранятся в {@link ConcurrentHashMap}, а порядок использования - в двусвязном списке,
+ * поэтому get/put/evict выполняются за O(1).
+ * <p>
+ * Чтение не берет глобальную блокировку: обращение к элементу записывается в
+ * {@link ReadBuffer} (полоса выбирается по потоку), а порядок в списке обновляется пачкой
+ * при заполнении буфера или при следующей записи. Если буфер переполнен, обращение
+ * отбрасывается - порядок LRU при высокой конкуренции становится приближенным,
+ * но чтение никогда не ждет писателей.
+ * <p>
+ * Емкость задается количеством элементов или суммарным весом, вычисляемым {@link Weigher}.
+ * Элемент тяжелее всего бюджета в кэш не попадает.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+public class ConcurrentLRUCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Максимальный суммарный вес элементов кэша.
+     */
+    private final long maximumWeight;
+    /**
+     * Функция вычисления веса элемента или null, если вес каждого элемента равен 1.
+     */
+    private final Weigher<? super K, ? super V> weigher;
+    /**
+     * Используется для хранения ключей и узлов списка с значениями элементов кэша.
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> cache;
+    /**
+     * Голова списка порядка использования: head.next - самый давно использованный элемент,
+     * head.prev - самый недавно использованный.
+     */
+    private final Node<K, V> head;
+    /**
+     * Загрузки при промахе, выполняющиеся в данный момент.
+     */
+    private final SingleFlight<K, V> loads;
+    /**
+     * Блокировка, под которой изменяется список порядка использования.
+     */
+    private final ReentrantLock evictionLock;
+    /**
+     * Буфер обращений, ожидающих переноса в конец списка.
+     */
+    private final ReadBuffer<Node<K, V>> readBuffer;
+    /**
+     * Суммарный вес элементов в списке порядка использования, изменяется под evictionLock.
+     */
+    private volatile long weightedSize;
+    /**
+     * Суммарный вес вытесненных элементов, изменяется под evictionLock.
+     */
+    private volatile long evictedWeight;
+    /**
+     * Количество вытесненных элементов, изменяется под evictionLock.
+     */
+    private volatile long evictionCount;
+
+    /**
+     * Конструктор для создания нового экземпляра ConcurrentLRUCache с заданной емкостью.
+     *
+     * @param capacity Максимальный размер кэша.
+     * @throws IllegalArgumentException если емкость не положительная.
+     */
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра ConcurrentLRUCache с ограничением по суммарному весу.
+     *
+     * @param maximumWeight Максимальный суммарный вес элементов.
+     * @param weigher       Функция вычисления веса элемента.
+     * @throws IllegalArgumentException если максимальный вес не положительный.
+     */
+    public ConcurrentLRUCache(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive, but was " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.cache = new ConcurrentHashMap<>();
+        this.head = new Node<>(null, null);
+        this.head.prev = head;
+        this.head.next = head;
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer<>();
+        this.loads = new SingleFlight<>();
+    }
+
+    /**
+     * Получает значение из кэша по ключу.
+     * Обращение записывается в буфер чтения, порядок использования обновляется позже пачкой.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден.
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает и сохраняет его.
+     * Одновременные промахи по одному ключу ожидают одну общую загрузку.
+     * Загруженное значение не сохраняется, если во время загрузки ключ был записан или удален.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.load(key, this::peek, loader, this::put);
+    }
+
+    /**
+     * Добавляет элемент, если элемента с таким ключом нет в кэше, не отмечая обращение к элементу.
+     * Значение не сохраняется, если во время вызова ключ был записан или удален.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        loads.load(key, this::peek, k -> value, this::put);
+    }
+
+    /**
+     * Получает значение по ключу, не отмечая обращение к элементу.
+     */
+    private V peek(K key) {
+        Node<K, V> node = cache.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий.
+     * Если кэш заполнен, удаляет самый давно использованный элемент.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        loads.invalidate(key);
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> existing;
+        while ((existing = cache.putIfAbsent(key, node)) != null) {
+            if (existing.alive) {
+                existing.value = value;
+                if (weigher == null) {
+                    recordRead(existing);
+                    return;
+                }
+                node = existing;
+                break;
+            }
+            cache.remove(key, existing);
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (node.alive) {
+                unlink(node);
+                node.weight = weigh(node);
+                if (node.weight > maximumWeight) {
+                    node.alive = false;
+                    cache.remove(node.key, node);
+                } else {
+                    linkLast(node);
+                }
+            }
+            while (weightedSize > maximumWeight) {
+                evictFirst();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает все значения из кэша.
+     *
+     * @return Снимок коллекции значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        return cache.values().stream()
+                .map(node -> node.value)
+                .toList();
+    }
+
+    /**
+     * Удаляет самый давно использованный элемент из кэша.
+     */
+    @Override
+    public void evict() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            evictFirst();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        loads.invalidate(key);
+        Node<K, V> node = cache.remove(key);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            node.alive = false;
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Возвращает текущее количество элементов в кэше.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов кэша.
+     *
+     * @return Суммарный вес элементов.
+     */
+    @Override
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Возвращает количество вытесненных элементов.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Возвращает суммарный вес вытесненных элементов.
+     *
+     * @return Суммарный вес вытесненных элементов.
+     */
+    @Override
+    public long evictedWeight() {
+        return evictedWeight;
+    }
+
+    /**
+     * Записывает обращение к элементу в буфер текущего потока.
+     * Если буфер заполнен и блокировка свободна, переносит накопленные обращения в список.
+     *
+     * @param node Узел, к которому было обращение.
+     */
+    private void recordRead(Node<K, V> node) {
+        if (readBuffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Переносит в конец списка все элементы из буфера чтения.
+     * Вызывается только под evictionLock.
+     */
+    private void drainReadBuffer() {
+        readBuffer.drainTo(node -> {
+            if (node.alive && node.prev != null) {
+                unlink(node);
+                linkLast(node);
+            }
+        });
+    }
+
+    /**
+     * Удаляет первый (самый давно использованный) элемент списка и из кэша.
+     * Вызывается только под evictionLock.
+     */
+    private void evictFirst() {
+        Node<K, V> eldest = head.next;
+        if (eldest == head) {
+            return;
+        }
+        eldest.alive = false;
+        unlink(eldest);
+        cache.remove(eldest.key, eldest);
+        evictedWeight += eldest.weight;
+        evictionCount++;
+    }
+
+    private int weigh(Node<K, V> node) {
+        return weigher == null ? 1 : weigher.weigh(node.key, node.value);
+    }
+
+    /**
+     * Добавляет узел в конец списка. Вызывается только под evictionLock.
+     *
+     * @param node Узел элемента.
+     */
+    private void linkLast(Node<K, V> node) {
+        Node<K, V> tail = head.prev;
+        node.prev = tail;
+        node.next = head;
+        tail.next = node;
+        head.prev = node;
+        weightedSize += node.weight;
+    }
+
+    /**
+     * Удаляет узел из списка, если он в нем находится. Вызывается только под evictionLock.
+     *
+     * @param node Узел элемента.
+     */
+    private void unlink(Node<K, V> node) {
+        if (node.prev == null) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        weightedSize -= node.weight;
+    }
+
+    /**
+     * Узел списка порядка использования.
+     * Ссылки prev/next изменяются только под evictionLock.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile boolean alive = true;
+        private int weight = 1;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
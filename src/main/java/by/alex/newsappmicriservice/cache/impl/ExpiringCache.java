@@ -0,0 +1,442 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import by.alex.newsappmicriservice.cache.weigher.Weigher;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Декоратор, добавляющий любому кэшу время жизни элементов и упреждающее обновление.
+ * <ul>
+ *     <li>expire-after-write - элемент истекает через заданное время после записи
+ *     (для отдельного элемента время можно задать через {@link #put(Object, Object, Duration)});</li>
+ *     <li>expire-after-access - элемент истекает, если к нему не обращались заданное время;</li>
+ *     <li>refresh-after-write - если при чтении через {@link #getOrLoad} элемент старше заданного времени,
+ *     он перезагружается в фоне, а читатели до окончания загрузки получают старое значение.</li>
+ * </ul>
+ * Вытеснение по размеру и алгоритм кэширования определяются вложенным кэшем.
+ * <p>
+ * Каждая запись получает номер версии. Запись, удаление, удаление истекшего элемента и установка
+ * перезагруженного значения выполняются под блокировкой ключа, поэтому истекший элемент удаляется, только если
+ * в кэше все еще он, а перезагруженное значение устанавливается, только если в кэше все еще элемент,
+ * вызвавший перезагрузку. Значение, прочитанное до записи или удаления этого ключа, отбрасывается.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+@Slf4j
+public class ExpiringCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Примерный размер {@link Entry} в байтах.
+     */
+    private static final int ENTRY_WEIGHT = 48;
+
+    /**
+     * Количество блокировок ключей.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Источник версий элементов, общий для всех кэшей.
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final AbstractCache<K, Entry<V>> delegate;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    /**
+     * Исполнитель фоновых перезагрузок.
+     */
+    private final Executor refreshExecutor;
+    private final LongSupplier ticker;
+    /**
+     * Ключи, перезагрузка которых выполняется в данный момент.
+     */
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    /**
+     * Количество элементов, удаленных из-за истечения времени жизни.
+     */
+    private final LongAdder expirations = new LongAdder();
+    /**
+     * Блокировки ключей для изменений, зависящих от текущего элемента.
+     */
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * Конструктор для создания нового экземпляра ExpiringCache.
+     * Нулевое или null время отключает соответствующее ограничение.
+     *
+     * @param delegate          Кэш, в котором хранятся элементы.
+     * @param expireAfterWrite  Время жизни элемента после записи.
+     * @param expireAfterAccess Время жизни элемента после последнего обращения.
+     * @param refreshAfterWrite Время после записи, по истечении которого элемент обновляется в фоне.
+     * @param refreshExecutor   Исполнитель фоновых перезагрузок.
+     */
+    public ExpiringCache(AbstractCache<K, Entry<V>> delegate, Duration expireAfterWrite, Duration expireAfterAccess,
+                         Duration refreshAfterWrite, Executor refreshExecutor) {
+        this(delegate, expireAfterWrite, expireAfterAccess, refreshAfterWrite, refreshExecutor, System::nanoTime);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра ExpiringCache с заданным источником времени.
+     *
+     * @param delegate          Кэш, в котором хранятся элементы.
+     * @param expireAfterWrite  Время жизни элемента после записи.
+     * @param expireAfterAccess Время жизни элемента после последнего обращения.
+     * @param refreshAfterWrite Время после записи, по истечении которого элемент обновляется в фоне.
+     * @param refreshExecutor   Исполнитель фоновых перезагрузок.
+     * @param ticker            Источник времени в наносекундах.
+     */
+    public ExpiringCache(AbstractCache<K, Entry<V>> delegate, Duration expireAfterWrite, Duration expireAfterAccess,
+                         Duration refreshAfterWrite, Executor refreshExecutor, LongSupplier ticker) {
+        this.delegate = delegate;
+        this.expireAfterWriteNanos = toNanos(expireAfterWrite);
+        this.expireAfterAccessNanos = toNanos(expireAfterAccess);
+        this.refreshAfterWriteNanos = toNanos(refreshAfterWrite);
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Получает значение из кэша по ключу. Истекший элемент удаляется.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден или истек.
+     */
+    @Override
+    public V get(K key) {
+        Entry<V> entry = liveEntry(key, ticker.getAsLong());
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии или истечении загружает и сохраняет его.
+     * Если элемент еще жив, но старше refresh-after-write, запускает его фоновую перезагрузку
+     * и возвращает текущее значение.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        long now = ticker.getAsLong();
+        Entry<V> entry = liveEntry(key, now);
+        if (entry != null) {
+            if (refreshAfterWriteNanos > 0 && now - entry.writeTime >= refreshAfterWriteNanos) {
+                refreshAsync(key, entry, loader);
+            }
+            return entry.value;
+        }
+        Entry<V> loaded = delegate.getOrLoad(key, k -> {
+            V value = loader.apply(k);
+            return value == null ? null : newEntry(value, expireAfterWriteNanos);
+        });
+        return loaded == null ? null : loaded.value;
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий со временем жизни по умолчанию.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        put(key, newEntry(value, expireAfterWriteNanos));
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий с индивидуальным временем жизни после записи.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     * @param ttl   Время жизни элемента после записи.
+     */
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        put(key, newEntry(value, toNanos(ttl)));
+    }
+
+    /**
+     * Добавляет элемент со временем жизни по умолчанию, если элемента с таким ключом нет во вложенном кэше.
+     * Истекший, но еще не удаленный элемент считается присутствующим, чтобы не отмечать обращение к нему.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        delegate.putIfAbsent(key, newEntry(value, expireAfterWriteNanos));
+    }
+
+    private void put(K key, Entry<V> entry) {
+        synchronized (lock(key)) {
+            delegate.put(key, entry);
+        }
+    }
+
+    /**
+     * Возвращает все неистекшие значения из кэша.
+     *
+     * @return Коллекция значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        long now = ticker.getAsLong();
+        return delegate.getAllValues().stream()
+                .filter(entry -> !entry.isExpired(now, expireAfterAccessNanos))
+                .map(entry -> entry.value)
+                .toList();
+    }
+
+    /**
+     * Удаляет элемент, выбранный для удаления алгоритмом вложенного кэша.
+     */
+    @Override
+    public void evict() {
+        delegate.evict();
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        synchronized (lock(key)) {
+            delegate.delete(key);
+        }
+    }
+
+    /**
+     * Проверяет, существует ли неистекший элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return liveEntry(key, ticker.getAsLong()) != null;
+    }
+
+    /**
+     * Возвращает количество элементов во вложенном кэше, включая еще не удаленные истекшие.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Возвращает количество элементов, вытесненных из вложенного кэша при нехватке места.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictionCount() {
+        return delegate.evictionCount();
+    }
+
+    /**
+     * Возвращает количество элементов, удаленных при чтении из-за истечения времени жизни.
+     *
+     * @return Количество истекших элементов.
+     */
+    @Override
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов вложенного кэша, включая еще не удаленные истекшие.
+     *
+     * @return Суммарный вес элементов.
+     */
+    @Override
+    public long weightedSize() {
+        return delegate.weightedSize();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов, вытесненных из вложенного кэша.
+     *
+     * @return Суммарный вес вытесненных элементов.
+     */
+    @Override
+    public long evictedWeight() {
+        return delegate.evictedWeight();
+    }
+
+    /**
+     * Возвращает неистекший элемент и отмечает обращение к нему, истекший элемент удаляет.
+     */
+    private Entry<V> liveEntry(K key, long now) {
+        Entry<V> entry = delegate.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now, expireAfterAccessNanos)) {
+            synchronized (lock(key)) {
+                if (isCurrent(key, entry)) {
+                    delegate.delete(key);
+                    expirations.increment();
+                }
+            }
+            return null;
+        }
+        entry.accessTime = now;
+        return entry;
+    }
+
+    /**
+     * Перезагружает элемент в фоне, если он еще не перезагружается.
+     * Перезагруженное значение устанавливается, только если в кэше все еще элемент, вызвавший перезагрузку.
+     * При ошибке загрузки старое значение остается в кэше до своего истечения.
+     */
+    private void refreshAsync(K key, Entry<V> trigger, Function<? super K, ? extends V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = loader.apply(key);
+                    if (value != null) {
+                        synchronized (lock(key)) {
+                            if (isCurrent(key, trigger)) {
+                                delegate.put(key, newEntry(value, expireAfterWriteNanos));
+                            } else {
+                                log.debug("Refresh of cache entry with key = {} dropped: entry changed", key);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Refresh of cache entry with key = {} failed: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Проверяет, что в кэше находится тот же элемент (с той же версией). Вызывается под блокировкой ключа.
+     */
+    private boolean isCurrent(K key, Entry<V> entry) {
+        Entry<V> current = delegate.get(key);
+        return current != null && current.version == entry.version;
+    }
+
+    private Object lock(K key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    private Entry<V> newEntry(V value, long expireAfterWrite) {
+        long now = ticker.getAsLong();
+        return new Entry<>(value, VERSIONS.incrementAndGet(), now, expireAfterWrite);
+    }
+
+    /**
+     * Создает сериализатор элементов для вложенного кэша, хранящего значения вне кучи.
+     * Время последнего обращения не сохраняется: изменить его у сериализованной копии нельзя,
+     * поэтому с таким кэшем expire-after-access отсчитывается от момента записи.
+     *
+     * @param valueSerializer Сериализатор значений.
+     * @param <V>             Тип значений.
+     * @return Сериализатор элементов.
+     */
+    public static <V> ValueSerializer<Entry<V>> entrySerializer(ValueSerializer<V> valueSerializer) {
+        return new ValueSerializer<>() {
+            @Override
+            public byte[] serialize(Entry<V> entry) {
+                byte[] value = valueSerializer.serialize(entry.value);
+                return ByteBuffer.allocate(3 * Long.BYTES + value.length)
+                        .putLong(entry.version)
+                        .putLong(entry.writeTime)
+                        .putLong(entry.expireAfterWriteNanos)
+                        .put(value)
+                        .array();
+            }
+
+            @Override
+            public Entry<V> deserialize(byte[] bytes) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long version = buffer.getLong();
+                long writeTime = buffer.getLong();
+                long expireAfterWriteNanos = buffer.getLong();
+                V value = valueSerializer.deserialize(Arrays.copyOfRange(bytes, buffer.position(), bytes.length));
+                return new Entry<>(value, version, writeTime, expireAfterWriteNanos);
+            }
+        };
+    }
+
+    /**
+     * Создает функцию вычисления веса элементов для вложенного кэша с ограничением по весу.
+     * К весу значения добавляется размер самого элемента.
+     *
+     * @param valueWeigher Функция вычисления веса значения.
+     * @param <K>          Тип ключей.
+     * @param <V>          Тип значений.
+     * @return Функция вычисления веса элементов.
+     */
+    public static <K, V> Weigher<K, Entry<V>> entryWeigher(Weigher<? super K, ? super V> valueWeigher) {
+        return (key, entry) -> (int) Math.min(Integer.MAX_VALUE,
+                (long) ENTRY_WEIGHT + valueWeigher.weigh(key, entry.value));
+    }
+
+    private static long toNanos(Duration duration) {
+        return duration == null ? 0 : duration.toNanos();
+    }
+
+    /**
+     * Элемент кэша с версией, временем записи, последнего обращения и временем жизни после записи.
+     *
+     * @param <V> Тип значения.
+     */
+    public static final class Entry<V> {
+        private final V value;
+        private final long version;
+        private final long writeTime;
+        private final long expireAfterWriteNanos;
+        private volatile long accessTime;
+
+        private Entry(V value, long version, long writeTime, long expireAfterWriteNanos) {
+            this.value = value;
+            this.version = version;
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+        }
+
+        private boolean isExpired(long now, long expireAfterAccessNanos) {
+            return (expireAfterWriteNanos > 0 && now - writeTime >= expireAfterWriteNanos)
+                    || (expireAfterAccessNanos > 0 && now - accessTime >= expireAfterAccessNanos);
+        }
+    }
+}
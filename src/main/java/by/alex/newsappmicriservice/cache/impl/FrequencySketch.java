@@ -0,0 +1,118 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Вероятностная оценка частоты обращений к ключам (Count-Min Sketch с 4-битными счетчиками).
+ * Каждый long таблицы хранит 16 счетчиков, для ключа используются 4 счетчика в разных ячейках,
+ * а оценкой частоты служит их минимум. После того как количество учтенных обращений достигает
+ * размера выборки, все счетчики делятся пополам, поэтому оценка отражает недавнюю популярность.
+ * <p>
+ * Счетчики обновляются через CAS и не требуют внешней блокировки.
+ *
+ * @param <K> Тип ключей.
+ */
+final class FrequencySketch<K> {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger size;
+
+    /**
+     * Создает оценку частоты, рассчитанную на заданное количество элементов в кэше.
+     *
+     * @param capacity Максимальный размер кэша.
+     */
+    FrequencySketch(int capacity) {
+        int length = ceilingPowerOfTwo(Math.max(capacity, 16));
+        this.table = new AtomicLongArray(length);
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(capacity, 16));
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Возвращает оценку частоты обращений к ключу (от 0 до 15).
+     *
+     * @param key Ключ элемента.
+     * @return Оценка частоты.
+     */
+    int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table.get(index) >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Учитывает обращение к ключу. При достижении размера выборки все счетчики стареют.
+     *
+     * @param key Ключ элемента.
+     */
+    void increment(K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && size.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Увеличивает счетчик j в ячейке i, если он еще не достиг максимума.
+     */
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        long current;
+        do {
+            current = table.get(i);
+            if ((current & mask) == mask) {
+                return false;
+            }
+        } while (!table.compareAndSet(i, current, current + (1L << offset)));
+        return true;
+    }
+
+    /**
+     * Делит все счетчики пополам.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length(); i++) {
+            long current = table.getAndUpdate(i, value -> (value >>> 1) & RESET_MASK);
+            odd += Long.bitCount(current & ONE_MASK);
+        }
+        size.set((sampleSize >>> 1) - (odd >>> 2));
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int hash) {
+        int x = hash * 0x31848bab;
+        return x ^ (x >>> 14);
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(1, value - 1)) << 1;
+    }
+}
@@ -0,0 +1,499 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.SingleFlight;
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Кэш, хранящий значения в сериализованном виде вне кучи (в direct {@link ByteBuffer}).
+ * В куче остается только индекс: ключ, смещение и длина записи, поэтому размер кэша
+ * почти не влияет на паузы сборщика мусора. Емкость задается в байтах.
+ * <p>
+ * Память разбита на сегменты, ключ выбирает сегмент по хэшу. Каждый сегмент - кольцевой буфер:
+ * записи добавляются подряд, а при нехватке места перезаписываются самые старые (FIFO).
+ * Удаленные и замененные записи освобождают место, когда до них доходит запись.
+ * Запись больше сегмента в кэш не попадает.
+ * <p>
+ * Direct-память ограничена параметром JVM -XX:MaxDirectMemorySize (по умолчанию равен -Xmx).
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+public class OffHeapCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Минимальный размер сегмента, при котором имеет смысл делить память на несколько сегментов.
+     */
+    private static final long MIN_SEGMENT_BYTES = 1 << 20;
+
+    private final Segment<K>[] segments;
+    private final ValueSerializer<V> serializer;
+    /**
+     * Загрузки при промахе, выполняющиеся в данный момент.
+     */
+    private final SingleFlight<K, V> loads;
+    /**
+     * Порядковый номер записи, общий для всех сегментов. Используется для выбора самой старой записи в evict.
+     */
+    private final AtomicLong writeSequence;
+
+    /**
+     * Конструктор для создания нового экземпляра OffHeapCache.
+     * Количество сегментов выбирается по числу процессоров, но каждый сегмент не меньше 1 МБ.
+     *
+     * @param capacityBytes Объем памяти вне кучи в байтах.
+     * @param serializer    Сериализатор значений.
+     * @throws IllegalArgumentException если емкость не положительная.
+     */
+    public OffHeapCache(long capacityBytes, ValueSerializer<V> serializer) {
+        this(capacityBytes, defaultSegments(capacityBytes), serializer);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра OffHeapCache с заданным количеством сегментов.
+     *
+     * @param capacityBytes Объем памяти вне кучи в байтах.
+     * @param segmentCount  Количество сегментов, округляется вверх до степени двойки.
+     * @param serializer    Сериализатор значений.
+     * @throws IllegalArgumentException если емкость или количество сегментов не положительные.
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapCache(long capacityBytes, int segmentCount, ValueSerializer<V> serializer) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive, but was " + capacityBytes);
+        }
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("Segment count must be positive, but was " + segmentCount);
+        }
+        int count = ceilingPowerOfTwo(segmentCount);
+        while (capacityBytes / count > Integer.MAX_VALUE) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>((int) (capacityBytes / count));
+        }
+        this.serializer = serializer;
+        this.loads = new SingleFlight<>();
+        this.writeSequence = new AtomicLong();
+    }
+
+    /**
+     * Получает значение из кэша по ключу. Значение копируется из памяти вне кучи и десериализуется.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден.
+     */
+    @Override
+    public V get(K key) {
+        byte[] bytes = segmentFor(key).read(key);
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает и сохраняет его.
+     * Одновременные промахи по одному ключу ожидают одну общую загрузку.
+     * Загруженное значение не сохраняется, если во время загрузки ключ был записан или удален.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.load(key, this::get, loader, this::put);
+    }
+
+    /**
+     * Добавляет элемент, если элемента с таким ключом нет в кэше, не отмечая обращение к элементу.
+     * Значение не сохраняется, если во время вызова ключ был записан или удален.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        loads.load(key, this::get, k -> value, this::put);
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий.
+     * Если места в сегменте не хватает, удаляются самые старые записи сегмента.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        loads.invalidate(key);
+        byte[] bytes = serializer.serialize(value);
+        segmentFor(key).write(key, bytes, writeSequence);
+    }
+
+    /**
+     * Возвращает все значения из кэша.
+     *
+     * @return Коллекция значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        List<V> values = new ArrayList<>();
+        for (Segment<K> segment : segments) {
+            segment.readAll().forEach(bytes -> values.add(serializer.deserialize(bytes)));
+        }
+        return values;
+    }
+
+    /**
+     * Удаляет самый давно записанный элемент из кэша.
+     */
+    @Override
+    public void evict() {
+        Segment<K> oldest = null;
+        long oldestSequence = Long.MAX_VALUE;
+        for (Segment<K> segment : segments) {
+            long sequence = segment.oldestSequence();
+            if (sequence < oldestSequence) {
+                oldestSequence = sequence;
+                oldest = segment;
+            }
+        }
+        if (oldest != null) {
+            oldest.evictOldest(oldestSequence);
+        }
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        loads.invalidate(key);
+        segmentFor(key).remove(key);
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return segmentFor(key).contains(key);
+    }
+
+    /**
+     * Возвращает текущее количество элементов в кэше.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Возвращает объем памяти вне кучи, занятый значениями элементов кэша.
+     *
+     * @return Занятый объем в байтах.
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (Segment<K> segment : segments) {
+            used += segment.usedBytes();
+        }
+        return used;
+    }
+
+    /**
+     * Возвращает объем памяти вне кучи, занятый значениями элементов кэша.
+     *
+     * @return Занятый объем в байтах.
+     */
+    @Override
+    public long weightedSize() {
+        return usedBytes();
+    }
+
+    /**
+     * Возвращает количество записей, перезаписанных или вытесненных при нехватке места.
+     *
+     * @return Количество вытесненных записей.
+     */
+    @Override
+    public long evictionCount() {
+        long evicted = 0;
+        for (Segment<K> segment : segments) {
+            evicted += segment.evictionCount();
+        }
+        return evicted;
+    }
+
+    /**
+     * Возвращает объем значений, перезаписанных или вытесненных при нехватке места.
+     *
+     * @return Объем вытесненных значений в байтах.
+     */
+    @Override
+    public long evictedWeight() {
+        long evicted = 0;
+        for (Segment<K> segment : segments) {
+            evicted += segment.evictedBytes();
+        }
+        return evicted;
+    }
+
+    /**
+     * Возвращает объем памяти вне кучи, выделенный под кэш.
+     *
+     * @return Емкость в байтах.
+     */
+    public long capacityBytes() {
+        long capacity = 0;
+        for (Segment<K> segment : segments) {
+            capacity += segment.buffer.capacity();
+        }
+        return capacity;
+    }
+
+    private Segment<K> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static int defaultSegments(long capacityBytes) {
+        int processors = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+        long bySize = Math.max(1, capacityBytes / MIN_SEGMENT_BYTES);
+        return (int) Math.min(processors, Long.highestOneBit(bySize));
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Сегмент памяти вне кучи - кольцевой буфер записей с индексом в куче.
+     * Очередь slots хранит записи в порядке записи: сначала оставшиеся записи прошлого круга
+     * (их смещение не меньше writePosition), затем записи текущего круга.
+     */
+    private static final class Segment<K> {
+        private final ByteBuffer buffer;
+        private final HashMap<K, Slot<K>> index = new HashMap<>();
+        private final ArrayDeque<Slot<K>> slots = new ArrayDeque<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private int writePosition;
+        private long usedBytes;
+        private long evictedBytes;
+        private long evictionCount;
+
+        private Segment(int capacity) {
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        private byte[] read(K key) {
+            lock.readLock().lock();
+            try {
+                Slot<K> slot = index.get(key);
+                return slot == null ? null : copy(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<byte[]> readAll() {
+            lock.readLock().lock();
+            try {
+                List<byte[]> values = new ArrayList<>(index.size());
+                for (Slot<K> slot : index.values()) {
+                    values.add(copy(slot));
+                }
+                return values;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean contains(K key) {
+            lock.readLock().lock();
+            try {
+                return index.containsKey(key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void write(K key, byte[] bytes, AtomicLong writeSequence) {
+            lock.writeLock().lock();
+            try {
+                unlink(index.remove(key));
+                if (bytes.length > buffer.capacity()) {
+                    return;
+                }
+                if (writePosition + bytes.length > buffer.capacity()) {
+                    reclaim(buffer.capacity());
+                    writePosition = 0;
+                }
+                reclaim(writePosition + bytes.length);
+                buffer.put(writePosition, bytes);
+                Slot<K> slot = new Slot<>(key, writePosition, bytes.length, writeSequence.incrementAndGet());
+                slots.addLast(slot);
+                index.put(key, slot);
+                usedBytes += bytes.length;
+                writePosition += bytes.length;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(K key) {
+            lock.writeLock().lock();
+            try {
+                unlink(index.remove(key));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Возвращает порядковый номер самой старой живой записи сегмента или Long.MAX_VALUE, если записей нет.
+         */
+        private long oldestSequence() {
+            lock.readLock().lock();
+            try {
+                for (Slot<K> slot : slots) {
+                    if (slot.live) {
+                        return slot.sequence;
+                    }
+                }
+                return Long.MAX_VALUE;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void evictOldest(long sequence) {
+            lock.writeLock().lock();
+            try {
+                for (Slot<K> slot : slots) {
+                    if (slot.live) {
+                        if (slot.sequence == sequence) {
+                            index.remove(slot.key);
+                            unlink(slot);
+                            evictedBytes += slot.length;
+                            evictionCount++;
+                        }
+                        return;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int size() {
+            lock.readLock().lock();
+            try {
+                return index.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long usedBytes() {
+            lock.readLock().lock();
+            try {
+                return usedBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long evictedBytes() {
+            lock.readLock().lock();
+            try {
+                return evictedBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private long evictionCount() {
+            lock.readLock().lock();
+            try {
+                return evictionCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Освобождает записи прошлого круга, начинающиеся до end (со смещением не меньше writePosition).
+         */
+        private void reclaim(int end) {
+            Slot<K> slot;
+            while ((slot = slots.peekFirst()) != null && slot.offset >= writePosition && slot.offset < end) {
+                slots.pollFirst();
+                if (slot.live) {
+                    index.remove(slot.key);
+                    unlink(slot);
+                    evictedBytes += slot.length;
+                    evictionCount++;
+                }
+            }
+        }
+
+        private void unlink(Slot<K> slot) {
+            if (slot != null && slot.live) {
+                slot.live = false;
+                usedBytes -= slot.length;
+            }
+        }
+
+        private byte[] copy(Slot<K> slot) {
+            byte[] bytes = new byte[slot.length];
+            buffer.get(slot.offset, bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * Положение записи в сегменте.
+     */
+    private static final class Slot<K> {
+        private final K key;
+        private final int offset;
+        private final int length;
+        private final long sequence;
+        private boolean live = true;
+
+        private Slot(K key, int offset, int length, long sequence) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Буфер обращений к элементам кэша, разбитый на полосы по потокам.
+ * Каждая полоса - кольцевой буфер с потерями: если ячейка еще не освобождена,
+ * обращение отбрасывается. Благодаря этому запись в буфер никогда не ждет блокировку,
+ * а политика вытеснения обновляется пачкой под блокировкой владельца буфера.
+ *
+ * @param <N> Тип узла, к которому было обращение.
+ */
+final class ReadBuffer<N> {
+
+    /**
+     * Количество полос (степень двойки).
+     */
+    private static final int STRIPES = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+    /**
+     * Размер одной полосы (степень двойки).
+     */
+    private static final int STRIPE_SIZE = 64;
+
+    private final AtomicReferenceArray<N>[] stripes;
+    private final AtomicInteger[] writeIndexes;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        this.stripes = new AtomicReferenceArray[STRIPES];
+        this.writeIndexes = new AtomicInteger[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicReferenceArray<>(STRIPE_SIZE);
+            writeIndexes[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Записывает обращение в полосу текущего потока.
+     *
+     * @param node Узел, к которому было обращение.
+     * @return true, если полоса заполнена и буфер пора освободить.
+     */
+    boolean offer(N node) {
+        int stripe = Thread.currentThread().hashCode() & (STRIPES - 1);
+        int index = writeIndexes[stripe].getAndIncrement() & (STRIPE_SIZE - 1);
+        boolean recorded = stripes[stripe].compareAndSet(index, null, node);
+        return !recorded || index == STRIPE_SIZE - 1;
+    }
+
+    /**
+     * Передает все накопленные обращения обработчику и очищает буфер.
+     * Вызывается только под блокировкой владельца буфера.
+     *
+     * @param consumer Обработчик обращения.
+     */
+    void drainTo(Consumer<N> consumer) {
+        for (AtomicReferenceArray<N> stripe : stripes) {
+            for (int i = 0; i < STRIPE_SIZE; i++) {
+                N node = stripe.getAndSet(i, null);
+                if (node != null) {
+                    consumer.accept(node);
+                }
+            }
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(1, value - 1)) << 1;
+    }
+}
@@ -0,0 +1,412 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.SingleFlight;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Потокобезопасная реализация кэша с политикой W-TinyLFU.
+ * Новые элементы попадают в небольшое окно (LRU, 1% емкости). Вытесненный из окна кандидат
+ * попадает в основную область (сегментированный LRU: испытательный и защищенный сегменты)
+ * только если по оценке {@link FrequencySketch} к нему обращаются чаще, чем к жертве
+ * из основной области. Благодаря этому однократные обращения (например, обход id краулером)
+ * не вытесняют популярные новости, а окно сохраняет свежие элементы с всплеском популярности.
+ * <p>
+ * Как и в {@link ConcurrentLRUCache}, чтение не берет блокировку: частота учитывается в
+ * оценке через CAS, а перемещение между сегментами выполняется пачкой из {@link ReadBuffer}.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+public class TinyLFUCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Доля окна от емкости кэша в процентах.
+     */
+    private static final int WINDOW_PERCENT = 1;
+    /**
+     * Доля защищенного сегмента от основной области в процентах.
+     */
+    private static final int PROTECTED_PERCENT = 80;
+
+    /**
+     * Используется для хранения ключей и узлов с значениями элементов кэша.
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> cache;
+    /**
+     * Оценка частоты обращений к ключам, включая отсутствующие в кэше.
+     */
+    private final FrequencySketch<K> sketch;
+    private final Segment<K, V> window;
+    private final Segment<K, V> probation;
+    private final Segment<K, V> protectedSegment;
+    private final int mainCapacity;
+    /**
+     * Загрузки при промахе, выполняющиеся в данный момент.
+     */
+    private final SingleFlight<K, V> loads;
+    /**
+     * Блокировка, под которой изменяются сегменты.
+     */
+    private final ReentrantLock evictionLock;
+    /**
+     * Буфер обращений, ожидающих перемещения между сегментами.
+     */
+    private final ReadBuffer<Node<K, V>> readBuffer;
+    /**
+     * Количество вытесненных и не допущенных в основную область элементов, изменяется под evictionLock.
+     */
+    private volatile long evictionCount;
+
+    /**
+     * Конструктор для создания нового экземпляра TinyLFUCache с заданной емкостью.
+     *
+     * @param capacity Максимальный размер кэша.
+     * @throws IllegalArgumentException если емкость не положительная.
+     */
+    public TinyLFUCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive, but was " + capacity);
+        }
+        int windowCapacity = Math.max(1, capacity * WINDOW_PERCENT / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.cache = new ConcurrentHashMap<>();
+        this.sketch = new FrequencySketch<>(capacity);
+        this.window = new Segment<>(windowCapacity);
+        this.probation = new Segment<>(mainCapacity);
+        this.protectedSegment = new Segment<>(mainCapacity * PROTECTED_PERCENT / 100);
+        this.evictionLock = new ReentrantLock();
+        this.readBuffer = new ReadBuffer<>();
+        this.loads = new SingleFlight<>();
+    }
+
+    /**
+     * Получает значение из кэша по ключу.
+     * Обращение учитывается в оценке частоты даже при промахе.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден.
+     */
+    @Override
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = cache.get(key);
+        if (node == null) {
+            return null;
+        }
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает и сохраняет его.
+     * Одновременные промахи по одному ключу ожидают одну общую загрузку.
+     * Загруженное значение не сохраняется, если во время загрузки ключ был записан или удален.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.load(key, this::peek, loader, this::put);
+    }
+
+    /**
+     * Добавляет элемент, если элемента с таким ключом нет в кэше, не отмечая обращение к элементу.
+     * Значение не сохраняется, если во время вызова ключ был записан или удален.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        loads.load(key, this::peek, k -> value, this::put);
+    }
+
+    /**
+     * Получает значение по ключу, не отмечая обращение к элементу.
+     */
+    private V peek(K key) {
+        Node<K, V> node = cache.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Добавляет новый элемент в окно кэша или обновляет существующий.
+     * Если окно переполнено, его самый давно использованный элемент проходит фильтр допуска
+     * в основную область.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        loads.invalidate(key);
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> existing;
+        while ((existing = cache.putIfAbsent(key, node)) != null) {
+            if (existing.alive) {
+                existing.value = value;
+                recordRead(existing);
+                return;
+            }
+            cache.remove(key, existing);
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (node.alive) {
+                window.linkLast(node);
+                evictFromWindow();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает все значения из кэша.
+     *
+     * @return Снимок коллекции значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        return cache.values().stream()
+                .map(node -> node.value)
+                .toList();
+    }
+
+    /**
+     * Удаляет элемент, который первым был бы вытеснен: самый давно использованный
+     * элемент испытательного сегмента, затем окна, затем защищенного сегмента.
+     */
+    @Override
+    public void evict() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            Node<K, V> victim = firstVictim();
+            if (victim != null) {
+                remove(victim);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        loads.invalidate(key);
+        Node<K, V> node = cache.remove(key);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            node.alive = false;
+            if (node.segment != null) {
+                node.segment.unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * Возвращает текущее количество элементов в кэше.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Возвращает количество элементов в кэше: веса элементов этой реализацией не поддерживаются.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public long weightedSize() {
+        return size();
+    }
+
+    /**
+     * Возвращает количество вытесненных элементов, включая кандидатов, не прошедших фильтр допуска.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Возвращает количество вытесненных элементов: вес каждого элемента равен 1.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictedWeight() {
+        return evictionCount;
+    }
+
+    private void recordRead(Node<K, V> node) {
+        if (readBuffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Применяет накопленные обращения: элемент окна переносится в конец окна,
+     * элемент испытательного сегмента повышается в защищенный, элемент защищенного
+     * сегмента переносится в его конец. Вызывается только под evictionLock.
+     */
+    private void drainReadBuffer() {
+        readBuffer.drainTo(node -> {
+            if (!node.alive || node.segment == null) {
+                return;
+            }
+            Segment<K, V> segment = node.segment;
+            segment.unlink(node);
+            if (segment == probation) {
+                protectedSegment.linkLast(node);
+                while (protectedSegment.size > protectedSegment.capacity) {
+                    Node<K, V> demoted = protectedSegment.first();
+                    protectedSegment.unlink(demoted);
+                    probation.linkLast(demoted);
+                }
+            } else {
+                segment.linkLast(node);
+            }
+        });
+    }
+
+    /**
+     * Переносит лишние элементы из окна в основную область через фильтр TinyLFU:
+     * кандидат вытесняет жертву основной области, только если его оценка частоты выше.
+     */
+    private void evictFromWindow() {
+        while (window.size > window.capacity) {
+            Node<K, V> candidate = window.first();
+            window.unlink(candidate);
+            if (probation.size + protectedSegment.size < mainCapacity) {
+                probation.linkLast(candidate);
+                continue;
+            }
+            Node<K, V> victim = probation.size > 0 ? probation.first() : protectedSegment.first();
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                remove(victim);
+                probation.linkLast(candidate);
+            } else {
+                candidate.alive = false;
+                cache.remove(candidate.key, candidate);
+                evictionCount++;
+            }
+        }
+    }
+
+    private Node<K, V> firstVictim() {
+        if (probation.size > 0) {
+            return probation.first();
+        }
+        if (window.size > 0) {
+            return window.first();
+        }
+        return protectedSegment.first();
+    }
+
+    private void remove(Node<K, V> node) {
+        node.alive = false;
+        node.segment.unlink(node);
+        cache.remove(node.key, node);
+        evictionCount++;
+    }
+
+    /**
+     * Узел элемента кэша внутри сегмента.
+     * Ссылки изменяются только под evictionLock.
+     */
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile boolean alive = true;
+        private Segment<K, V> segment;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * LRU-сегмент: кольцевой двусвязный список, первый элемент - самый давно использованный.
+     */
+    private static final class Segment<K, V> {
+        private final Node<K, V> head = new Node<>(null, null);
+        private final int capacity;
+        private int size;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            head.prev = head;
+            head.next = head;
+        }
+
+        private Node<K, V> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        private void linkLast(Node<K, V> node) {
+            Node<K, V> tail = head.prev;
+            node.prev = tail;
+            node.next = head;
+            tail.next = node;
+            head.prev = node;
+            node.segment = this;
+            size++;
+        }
+
+        private void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import by.alex.newsappmicriservice.cache.tier.InvalidationBus;
+import by.alex.newsappmicriservice.cache.tier.SharedCacheTier;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Двухуровневый кэш: локальный кэш реплики (L1) перед общим для всех реплик кэшем вне процесса (L2).
+ * <ul>
+ *     <li>промах L1 сначала проверяется в L2, и только при промахе L2 вызывается загрузчик,
+ *     результат которого сохраняется в оба уровня;</li>
+ *     <li>запись и удаление применяются к обоим уровням, а ключ рассылается другим репликам
+ *     через {@link InvalidationBus}, и те удаляют его из своего L1;</li>
+ *     <li>{@link #evict()}, размер и счетчики вытеснений относятся только к L1.</li>
+ * </ul>
+ * Ошибки L2 и канала инвалидаций не прерывают операцию: кэш продолжает работать как локальный.
+ * Загруженное значение не сохраняется ни в L1, ни в L2, если во время загрузки ключ был записан, удален
+ * или инвалидирован другой репликой: загрузка могла прочитать значение до изменения.
+ * Фоновая перезагрузка L1 тоже читает L2, поэтому изменения, сделанные в базе данных в обход приложения,
+ * видны не позже истечения элемента в L2.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+@Slf4j
+public class TwoTierCache<K, V> implements AbstractCache<K, V> {
+
+    /**
+     * Количество полос счетчиков записей.
+     */
+    private static final int STRIPES = 64;
+
+    private final AbstractCache<K, V> local;
+    private final SharedCacheTier shared;
+    private final InvalidationBus invalidationBus;
+    private final ValueSerializer<V> serializer;
+    private final Function<String, K> keyParser;
+    private final String keyPrefix;
+    private final Duration sharedTtl;
+
+    /**
+     * Счетчики записей и удалений ключей по полосам. Загруженное значение сохраняется в L2,
+     * только если счетчик полосы его ключа не изменился с начала загрузки.
+     */
+    private final long[] writeVersions = new long[STRIPES];
+    private final ReentrantLock[] stripeLocks = new ReentrantLock[STRIPES];
+
+    /**
+     * Конструктор для создания нового экземпляра TwoTierCache. Подписывается на инвалидации других реплик.
+     *
+     * @param local           Локальный кэш реплики.
+     * @param shared          Общий кэш вне процесса.
+     * @param invalidationBus Канал рассылки инвалидаций.
+     * @param serializer      Сериализатор значений для общего кэша.
+     * @param keyParser       Функция восстановления ключа из строки, полученной от других реплик.
+     * @param keyPrefix       Префикс ключей кэша в общем хранилище.
+     * @param sharedTtl       Время жизни элементов в общем кэше, null - без ограничения.
+     */
+    public TwoTierCache(AbstractCache<K, V> local, SharedCacheTier shared, InvalidationBus invalidationBus,
+                        ValueSerializer<V> serializer, Function<String, K> keyParser, String keyPrefix,
+                        Duration sharedTtl) {
+        this.local = local;
+        this.shared = shared;
+        this.invalidationBus = invalidationBus;
+        this.serializer = serializer;
+        this.keyParser = keyParser;
+        this.keyPrefix = keyPrefix;
+        this.sharedTtl = sharedTtl;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    /**
+     * Получает значение из L1, а при промахе - из L2 с сохранением в L1.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден ни на одном уровне.
+     */
+    @Override
+    public V get(K key) {
+        V value = local.get(key);
+        if (value == null) {
+            value = getShared(key);
+            if (value != null) {
+                local.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Получает значение из L1, при промахе - из L2, а при промахе L2 загружает его и сохраняет в оба уровня.
+     * Одновременные промахи одного ключа объединяет L1, поэтому L2 и загрузчик вызываются один раз на реплику.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        return local.getOrLoad(key, k -> {
+            long version = writeVersion(k);
+            V value = getShared(k);
+            if (value == null) {
+                value = loader.apply(k);
+                if (value != null) {
+                    putSharedIfUnchanged(k, value, version);
+                }
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Сохраняет элемент в оба уровня и рассылает инвалидацию другим репликам.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        recordWrite(key);
+        local.put(key, value);
+        putShared(key, value, sharedTtl);
+        publish(key);
+    }
+
+    /**
+     * Сохраняет элемент в оба уровня с индивидуальным временем жизни и рассылает инвалидацию другим репликам.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     * @param ttl   Время жизни элемента после записи.
+     */
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        recordWrite(key);
+        local.put(key, value, ttl);
+        putShared(key, value, ttl);
+        publish(key);
+    }
+
+    /**
+     * Добавляет элемент только в L1, если его там нет. Значение не рассылается другим репликам и не пишется в L2:
+     * оно прочитано из источника данных, а не изменено.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        local.putIfAbsent(key, value);
+    }
+
+    /**
+     * Сохраняет несколько элементов в оба уровня и рассылает их ключи другим репликам одним сообщением.
+     *
+     * @param values Элементы по ключам.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> values) {
+        values.keySet().forEach(this::recordWrite);
+        local.putAll(values);
+        values.forEach((key, value) -> putShared(key, value, sharedTtl));
+        publishAll(values.keySet());
+    }
+
+    /**
+     * Возвращает значения из L1. Содержимое L2 не перечисляется.
+     *
+     * @return Коллекция значений локального кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        return local.getAllValues();
+    }
+
+    /**
+     * Вытесняет элемент из L1. Общий кэш вытесняет элементы самостоятельно.
+     */
+    @Override
+    public void evict() {
+        local.evict();
+    }
+
+    /**
+     * Удаляет элемент из обоих уровней и рассылает инвалидацию другим репликам.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        recordWrite(key);
+        local.delete(key);
+        try {
+            shared.delete(sharedKey(key));
+        } catch (RuntimeException e) {
+            log.warn("Shared cache delete of key = {} failed: {}", key, e.getMessage());
+        }
+        publish(key);
+    }
+
+    /**
+     * Удаляет несколько элементов из обоих уровней и рассылает их ключи другим репликам одним сообщением.
+     *
+     * @param keys Ключи элементов.
+     */
+    @Override
+    public void deleteAll(Collection<? extends K> keys) {
+        keys.forEach(this::recordWrite);
+        local.deleteAll(keys);
+        for (K key : keys) {
+            try {
+                shared.delete(sharedKey(key));
+            } catch (RuntimeException e) {
+                log.warn("Shared cache delete of key = {} failed: {}", key, e.getMessage());
+            }
+        }
+        publishAll(keys);
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в L1 или L2.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return local.containsKey(key) || getShared(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return local.size();
+    }
+
+    @Override
+    public long evictionCount() {
+        return local.evictionCount();
+    }
+
+    @Override
+    public long expirationCount() {
+        return local.expirationCount();
+    }
+
+    @Override
+    public long weightedSize() {
+        return local.weightedSize();
+    }
+
+    @Override
+    public long evictedWeight() {
+        return local.evictedWeight();
+    }
+
+    /**
+     * Возвращает локальный кэш, например, для чтения его метрик.
+     *
+     * @return Локальный кэш.
+     */
+    public AbstractCache<K, V> local() {
+        return local;
+    }
+
+    /**
+     * Удаляет из L1 элемент, измененный другой репликой.
+     */
+    private void onInvalidation(String key) {
+        try {
+            K parsed = keyParser.apply(key);
+            recordWrite(parsed);
+            local.delete(parsed);
+        } catch (RuntimeException e) {
+            log.warn("Invalid cache invalidation message {}: {}", key, e.getMessage());
+        }
+    }
+
+    private V getShared(K key) {
+        try {
+            byte[] bytes = shared.get(sharedKey(key));
+            return bytes == null ? null : serializer.deserialize(bytes);
+        } catch (RuntimeException e) {
+            log.warn("Shared cache read of key = {} failed: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putShared(K key, V value, Duration ttl) {
+        try {
+            shared.put(sharedKey(key), serializer.serialize(value), ttl);
+        } catch (RuntimeException e) {
+            log.warn("Shared cache write of key = {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет загруженное значение в L2, если ключ не был записан или удален с начала загрузки.
+     * Проверка и запись выполняются под блокировкой полосы, поэтому запись, начавшаяся позже, перекрывает значение.
+     */
+    private void putSharedIfUnchanged(K key, V value, long version) {
+        ReentrantLock lock = stripeLocks[stripe(key)];
+        lock.lock();
+        try {
+            if (writeVersions[stripe(key)] == version) {
+                putShared(key, value, sharedTtl);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long writeVersion(K key) {
+        ReentrantLock lock = stripeLocks[stripe(key)];
+        lock.lock();
+        try {
+            return writeVersions[stripe(key)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отмечает запись или удаление ключа до изменения уровней кэша.
+     */
+    private void recordWrite(K key) {
+        ReentrantLock lock = stripeLocks[stripe(key)];
+        lock.lock();
+        try {
+            writeVersions[stripe(key)]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private void publish(K key) {
+        try {
+            invalidationBus.publish(String.valueOf(key));
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation of key = {} was not published: {}", key, e.getMessage());
+        }
+    }
+
+    private void publishAll(Collection<? extends K> keys) {
+        try {
+            invalidationBus.publishAll(keys.stream().map(String::valueOf).toList());
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation of {} keys was not published: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private String sharedKey(K key) {
+        return keyPrefix + key;
+    }
+}
@@ -0,0 +1,18 @@
+package by.alex.newsappmicriservice.cache.key;
+
+/**
+ * Функция вычисления ключа кэша по аргументам и результату метода,
+ * заранее подготовленная для выражения из аннотации кэширования.
+ */
+@FunctionalInterface
+public interface KeyExtractor {
+
+    /**
+     * Вычисляет ключ кэша.
+     *
+     * @param args   Аргументы метода.
+     * @param result Результат метода или null, если метод еще не выполнен.
+     * @return Ключ кэша.
+     */
+    Object extract(Object[] args, Object result);
+}
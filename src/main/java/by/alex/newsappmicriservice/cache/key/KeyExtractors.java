@@ -0,0 +1,99 @@
+package by.alex.newsappmicriservice.cache.key;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Подготавливает и хранит {@link KeyExtractor} для выражений ключей из аннотаций кэширования.
+ * Выражение разбирается один раз на метод:
+ * <ul>
+ *     <li>{@code #result}, {@code #p0}/{@code #a0} и {@code #имяПараметра} превращаются в прямое обращение
+ *     к результату или аргументу без SpEL;</li>
+ *     <li>остальные выражения (например, {@code #result.id()} или {@code #newsId + ':' + #commentId})
+ *     вычисляются SpEL в режиме компиляции MIXED, поэтому после нескольких вызовов выполняются как байткод.</li>
+ * </ul>
+ * В выражениях доступны аргументы по имени и по индексу ({@code #p0}, {@code #a0}) и результат ({@code #result}).
+ * Обращения к типам и бинам запрещены.
+ */
+public class KeyExtractors {
+
+    private static final Pattern ARGUMENT_INDEX = Pattern.compile("#[pa](\\d+)");
+    private static final Pattern VARIABLE = Pattern.compile("#([A-Za-z_$][A-Za-z0-9_$]*)");
+    private static final String RESULT = "result";
+
+    private final ExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, KeyExtractors.class.getClassLoader()));
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<MethodExpression, KeyExtractor> extractors = new ConcurrentHashMap<>();
+
+    /**
+     * Возвращает функцию вычисления ключа для выражения метода, подготавливая ее при первом обращении.
+     *
+     * @param method     Метод с аннотацией кэширования.
+     * @param expression Выражение ключа.
+     * @return Функция вычисления ключа.
+     */
+    public KeyExtractor get(Method method, String expression) {
+        return extractors.computeIfAbsent(new MethodExpression(method, expression), this::compile);
+    }
+
+    private KeyExtractor compile(MethodExpression methodExpression) {
+        String expression = methodExpression.expression.trim();
+        String[] names = parameterNames(methodExpression.method);
+        Matcher index = ARGUMENT_INDEX.matcher(expression);
+        if (index.matches()) {
+            return argument(Integer.parseInt(index.group(1)), names.length, expression);
+        }
+        Matcher variable = VARIABLE.matcher(expression);
+        if (variable.matches()) {
+            if (RESULT.equals(variable.group(1))) {
+                return (args, result) -> result;
+            }
+            return argument(Arrays.asList(names).indexOf(variable.group(1)), names.length, expression);
+        }
+        Expression parsed = parser.parseExpression(expression);
+        return (args, result) -> parsed.getValue(context(names, args, result));
+    }
+
+    private static KeyExtractor argument(int index, int count, String expression) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("Cache key expression " + expression + " does not match any argument");
+        }
+        return (args, result) -> args[index];
+    }
+
+    private static EvaluationContext context(String[] names, Object[] args, Object result) {
+        SimpleEvaluationContext context = SimpleEvaluationContext.forReadOnlyDataBinding().withInstanceMethods().build();
+        for (int i = 0; i < args.length; i++) {
+            context.setVariable("p" + i, args[i]);
+            context.setVariable("a" + i, args[i]);
+            if (i < names.length) {
+                context.setVariable(names[i], args[i]);
+            }
+        }
+        context.setVariable(RESULT, result);
+        return context;
+    }
+
+    private String[] parameterNames(Method method) {
+        String[] names = parameterNameDiscoverer.getParameterNames(method);
+        return names != null ? names : new String[method.getParameterCount()];
+    }
+
+    private record MethodExpression(Method method, String expression) {
+    }
+}
@@ -0,0 +1,35 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+/**
+ * Снимок статистики кэша.
+ *
+ * @param name              Имя кэша.
+ * @param size              Текущее количество элементов.
+ * @param weightedSize      Текущий суммарный вес элементов.
+ * @param hitCount          Количество попаданий.
+ * @param missCount         Количество промахов.
+ * @param hitRatio          Доля попаданий среди всех обращений от 0 до 1.
+ * @param loadSuccessCount  Количество успешных загрузок.
+ * @param loadFailureCount  Количество загрузок, завершившихся исключением.
+ * @param averageLoadMillis Среднее время загрузки в миллисекундах.
+ * @param sizeEvictions     Количество элементов, вытесненных при нехватке места.
+ * @param expirations       Количество элементов, удаленных из-за истечения времени жизни.
+ * @param explicitEvictions Количество элементов, удаленных явно.
+ * @param evictedWeight     Суммарный вес элементов, вытесненных при нехватке места.
+ */
+public record CacheStats(
+        String name,
+        int size,
+        long weightedSize,
+        long hitCount,
+        long missCount,
+        double hitRatio,
+        long loadSuccessCount,
+        long loadFailureCount,
+        double averageLoadMillis,
+        long sizeEvictions,
+        long expirations,
+        long explicitEvictions,
+        long evictedWeight
+) {
+}
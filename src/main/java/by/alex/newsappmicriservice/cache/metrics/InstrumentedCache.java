@@ -0,0 +1,329 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.impl.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Декоратор, публикующий метрики кэша в Micrometer. Все метрики помечены тегом cache с именем кэша:
+ * <ul>
+ *     <li>cache.gets (result=hit|miss) - попадания и промахи;</li>
+ *     <li>cache.puts - записи;</li>
+ *     <li>cache.load (result=success|failure) - время загрузок с гистограммой;</li>
+ *     <li>cache.evictions (cause=size|expired|explicit) - удаления по причинам;</li>
+ *     <li>cache.size, cache.weight и cache.evicted.weight - размер и вес элементов.</li>
+ * </ul>
+ * Промахом считается только обращение, в потоке которого выполнялся загрузчик. Поток, дождавшийся
+ * загрузки, начатой другим потоком, и фоновое обновление {@link ExpiringCache} считаются попаданиями.
+ *
+ * @param <K> Тип ключей в кэше.
+ * @param <V> Тип значений в кэше.
+ */
+public class InstrumentedCache<K, V> implements AbstractCache<K, V> {
+
+    private final AbstractCache<K, V> delegate;
+    private final String name;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter explicitEvictions;
+    private final Timer loadSuccess;
+    private final Timer loadFailure;
+
+    /**
+     * Конструктор для создания нового экземпляра InstrumentedCache и регистрации его метрик.
+     *
+     * @param delegate Кэш, метрики которого публикуются.
+     * @param name     Имя кэша в тегах метрик.
+     * @param registry Реестр метрик.
+     */
+    public InstrumentedCache(AbstractCache<K, V> delegate, String name, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.name = name;
+        Tags tags = Tags.of("cache", name);
+        this.hits = Counter.builder("cache.gets").tags(tags).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        this.misses = Counter.builder("cache.gets").tags(tags).tag("result", "miss")
+                .description("The number of times cache lookup methods have loaded a value")
+                .register(registry);
+        this.puts = Counter.builder("cache.puts").tags(tags)
+                .description("The number of entries added to the cache")
+                .register(registry);
+        this.explicitEvictions = Counter.builder("cache.evictions").tags(tags).tag("cause", "explicit")
+                .description("The number of entries removed from the cache")
+                .register(registry);
+        this.loadSuccess = loadTimer(tags, "success", registry);
+        this.loadFailure = loadTimer(tags, "failure", registry);
+        FunctionCounter.builder("cache.evictions", delegate, AbstractCache::evictionCount)
+                .tags(tags).tag("cause", "size")
+                .description("The number of entries removed from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", delegate, AbstractCache::expirationCount)
+                .tags(tags).tag("cause", "expired")
+                .description("The number of entries removed from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.evicted.weight", delegate, AbstractCache::evictedWeight)
+                .tags(tags)
+                .description("The sum of weights of entries evicted from the cache")
+                .register(registry);
+        Gauge.builder("cache.size", delegate, AbstractCache::size)
+                .tags(tags)
+                .description("The number of entries in the cache")
+                .register(registry);
+        Gauge.builder("cache.weight", delegate, AbstractCache::weightedSize)
+                .tags(tags)
+                .description("The sum of weights of entries in the cache")
+                .register(registry);
+    }
+
+    /**
+     * Получает значение из кэша по ключу и учитывает попадание или промах.
+     *
+     * @param key Ключ элемента.
+     * @return Значение элемента или null, если элемент не найден.
+     */
+    @Override
+    public V get(K key) {
+        V value = delegate.get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    /**
+     * Получает значение из кэша по ключу, а при его отсутствии загружает и сохраняет его.
+     * Учитывает попадание или промах и время загрузки.
+     *
+     * @param key    Ключ элемента.
+     * @param loader Функция загрузки значения при промахе.
+     * @return Значение элемента или null, если загрузчик вернул null.
+     */
+    @Override
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        Thread caller = Thread.currentThread();
+        boolean[] loaded = new boolean[1];
+        try {
+            return delegate.getOrLoad(key, k -> {
+                if (Thread.currentThread() == caller) {
+                    loaded[0] = true;
+                }
+                return load(k, loader);
+            });
+        } finally {
+            (loaded[0] ? misses : hits).increment();
+        }
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void put(K key, V value) {
+        delegate.put(key, value);
+        puts.increment();
+    }
+
+    /**
+     * Добавляет новый элемент в кэш или обновляет существующий с индивидуальным временем жизни.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     * @param ttl   Время жизни элемента после записи.
+     */
+    @Override
+    public void put(K key, V value, Duration ttl) {
+        delegate.put(key, value, ttl);
+        puts.increment();
+    }
+
+    /**
+     * Добавляет или обновляет несколько элементов.
+     *
+     * @param values Элементы по ключам.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> values) {
+        delegate.putAll(values);
+        puts.increment(values.size());
+    }
+
+    /**
+     * Возвращает все значения из кэша.
+     *
+     * @return Коллекция значений из кэша.
+     */
+    @Override
+    public Collection<V> getAllValues() {
+        return delegate.getAllValues();
+    }
+
+    /**
+     * Удаляет элемент, выбранный для удаления алгоритмом вложенного кэша.
+     */
+    @Override
+    public void evict() {
+        delegate.evict();
+    }
+
+    /**
+     * Удаляет элемент из кэша по ключу и учитывает явное удаление.
+     *
+     * @param key Ключ элемента.
+     */
+    @Override
+    public void delete(K key) {
+        delegate.delete(key);
+        explicitEvictions.increment();
+    }
+
+    /**
+     * Удаляет несколько элементов по ключам и учитывает явные удаления.
+     *
+     * @param keys Ключи элементов.
+     */
+    @Override
+    public void deleteAll(Collection<? extends K> keys) {
+        delegate.deleteAll(keys);
+        explicitEvictions.increment(keys.size());
+    }
+
+    /**
+     * Проверяет, существует ли элемент с заданным ключом в кэше.
+     *
+     * @param key Ключ элемента.
+     * @return true, если элемент существует, иначе false.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return delegate.containsKey(key);
+    }
+
+    /**
+     * Возвращает количество элементов во вложенном кэше.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * Добавляет элемент во вложенный кэш, если его там нет. Не учитывается в метриках обращений и загрузок.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     */
+    @Override
+    public void putIfAbsent(K key, V value) {
+        delegate.putIfAbsent(key, value);
+    }
+
+    /**
+     * Возвращает количество элементов, вытесненных из вложенного кэша при нехватке места.
+     *
+     * @return Количество вытесненных элементов.
+     */
+    @Override
+    public long evictionCount() {
+        return delegate.evictionCount();
+    }
+
+    /**
+     * Возвращает количество элементов, удаленных из вложенного кэша из-за истечения времени жизни.
+     *
+     * @return Количество истекших элементов.
+     */
+    @Override
+    public long expirationCount() {
+        return delegate.expirationCount();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов вложенного кэша.
+     *
+     * @return Суммарный вес элементов.
+     */
+    @Override
+    public long weightedSize() {
+        return delegate.weightedSize();
+    }
+
+    /**
+     * Возвращает суммарный вес элементов, вытесненных из вложенного кэша.
+     *
+     * @return Суммарный вес вытесненных элементов.
+     */
+    @Override
+    public long evictedWeight() {
+        return delegate.evictedWeight();
+    }
+
+    /**
+     * Возвращает вложенный кэш, например, для прогрева, который не должен учитываться в метриках обращений.
+     *
+     * @return Вложенный кэш.
+     */
+    public AbstractCache<K, V> delegate() {
+        return delegate;
+    }
+
+    /**
+     * Возвращает снимок статистики кэша.
+     *
+     * @return Статистика кэша.
+     */
+    public CacheStats stats() {
+        long hitCount = (long) hits.count();
+        long missCount = (long) misses.count();
+        long loads = loadSuccess.count() + loadFailure.count();
+        double loadMillis = loadSuccess.totalTime(TimeUnit.MILLISECONDS) + loadFailure.totalTime(TimeUnit.MILLISECONDS);
+        return new CacheStats(
+                name,
+                delegate.size(),
+                delegate.weightedSize(),
+                hitCount,
+                missCount,
+                hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount),
+                loadSuccess.count(),
+                loadFailure.count(),
+                loads == 0 ? 0 : loadMillis / loads,
+                delegate.evictionCount(),
+                delegate.expirationCount(),
+                (long) explicitEvictions.count(),
+                delegate.evictedWeight());
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            loadSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer loadTimer(Tags tags, String result, MeterRegistry registry) {
+        return Timer.builder("cache.load").tags(tags).tag("result", result)
+                .description("The time spent loading values into the cache")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
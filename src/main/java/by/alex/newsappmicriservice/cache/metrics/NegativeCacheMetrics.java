@@ -0,0 +1,41 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+import by.alex.newsappmicriservice.cache.NegativeCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Публикует метрики негативного кэша в Micrometer с тегом cache:
+ * cache.gets (result=hit|miss) и cache.size.
+ */
+@RequiredArgsConstructor
+public class NegativeCacheMetrics implements MeterBinder {
+
+    private final NegativeCache<?> negativeCache;
+
+    private final String name;
+
+    /**
+     * Регистрирует метрики негативного кэша.
+     *
+     * @param registry Реестр метрик.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", negativeCache, NegativeCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .description("The number of lookups of ids known to be missing")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", negativeCache, NegativeCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .description("The number of lookups of ids not known to be missing")
+                .register(registry);
+        Gauge.builder("cache.size", negativeCache, NegativeCache::size)
+                .tag("cache", name)
+                .description("The number of ids known to be missing")
+                .register(registry);
+    }
+}
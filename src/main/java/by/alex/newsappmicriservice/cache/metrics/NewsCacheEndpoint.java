@@ -0,0 +1,43 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint /actuator/newscache с настройками и статистикой кэша новостей.
+ * Позволяет подбирать spring.cache.algorithm и размер кэша по данным с production.
+ */
+@Endpoint(id = "newscache")
+@RequiredArgsConstructor
+public class NewsCacheEndpoint {
+
+    private final InstrumentedCache<?, ?> newsCache;
+
+    private final String algorithm;
+
+    private final int maxSize;
+
+    private final Long maxWeightBytes;
+
+    /**
+     * Возвращает настройки и текущую статистику кэша новостей.
+     *
+     * @return Отчет о кэше новостей.
+     */
+    @ReadOperation
+    public Report report() {
+        return new Report(algorithm, maxSize, maxWeightBytes, newsCache.stats());
+    }
+
+    /**
+     * Отчет о кэше новостей.
+     *
+     * @param algorithm      Алгоритм кэширования.
+     * @param maxSize        Максимальное количество новостей в кэше.
+     * @param maxWeightBytes Бюджет памяти кэша в байтах или null, если кэш ограничен количеством новостей.
+     * @param stats          Статистика кэша.
+     */
+    public record Report(String algorithm, int maxSize, Long maxWeightBytes, CacheStats stats) {
+    }
+}
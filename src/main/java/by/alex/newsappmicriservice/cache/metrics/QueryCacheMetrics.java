@@ -0,0 +1,41 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+import by.alex.newsappmicriservice.cache.QueryCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Публикует метрики кэша результатов запросов в Micrometer с тегом cache:
+ * cache.gets (result=hit|miss) и cache.size.
+ */
+@RequiredArgsConstructor
+public class QueryCacheMetrics implements MeterBinder {
+
+    private final QueryCache queryCache;
+
+    private final String name;
+
+    /**
+     * Регистрирует метрики кэша результатов запросов.
+     *
+     * @param registry Реестр метрик.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", queryCache, QueryCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .description("The number of queries answered from the cached id list")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", queryCache, QueryCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .description("The number of queries executed against the data source")
+                .register(registry);
+        Gauge.builder("cache.size", queryCache, QueryCache::size)
+                .tag("cache", name)
+                .description("The number of cached queries")
+                .register(registry);
+    }
+}
@@ -0,0 +1,99 @@
+package by.alex.newsappmicriservice.cache.serializer;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Бинарный сериализатор {@link ResponseNewsDto}.
+ * Формат: байт с флагами заполненных полей, затем только заполненные поля -
+ * id (8 байт), время (секунды и наносекунды), заголовок и текст (длина и байты UTF-8).
+ * Текст новости не ограничен 64 КБ, в отличие от {@link DataOutputStream#writeUTF(String)}.
+ */
+public class ResponseNewsDtoSerializer implements ValueSerializer<ResponseNewsDto> {
+
+    private static final int ID = 1;
+    private static final int TIME = 1 << 1;
+    private static final int TITLE = 1 << 2;
+    private static final int TEXT = 1 << 3;
+
+    /**
+     * Преобразует новость в массив байт.
+     *
+     * @param news Новость.
+     * @return Сериализованная новость.
+     */
+    @Override
+    public byte[] serialize(ResponseNewsDto news) {
+        byte[] title = encode(news.title());
+        byte[] text = encode(news.text());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + length(title) + length(text));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte((news.id() != null ? ID : 0) | (news.time() != null ? TIME : 0)
+                    | (title != null ? TITLE : 0) | (text != null ? TEXT : 0));
+            if (news.id() != null) {
+                out.writeLong(news.id());
+            }
+            if (news.time() != null) {
+                out.writeLong(news.time().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(news.time().getNano());
+            }
+            writeBytes(out, title);
+            writeBytes(out, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Восстанавливает новость из массива байт.
+     *
+     * @param bytes Сериализованная новость.
+     * @return Новость.
+     */
+    @Override
+    public ResponseNewsDto deserialize(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int flags = in.readUnsignedByte();
+            Long id = (flags & ID) != 0 ? in.readLong() : null;
+            LocalDateTime time = (flags & TIME) != 0
+                    ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                    : null;
+            String title = (flags & TITLE) != 0 ? readString(in) : null;
+            String text = (flags & TEXT) != 0 ? readString(in) : null;
+            return new ResponseNewsDto(id, time, title, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value != null) {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,26 @@
+package by.alex.newsappmicriservice.cache.serializer;
+
+/**
+ * Интерфейс преобразования значений кэша в компактный массив байт и обратно.
+ * Используется кэшами, которые хранят значения вне кучи.
+ *
+ * @param <V> Тип значений.
+ */
+public interface ValueSerializer<V> {
+
+    /**
+     * Преобразует значение в массив байт.
+     *
+     * @param value Значение.
+     * @return Сериализованное значение.
+     */
+    byte[] serialize(V value);
+
+    /**
+     * Восстанавливает значение из массива байт.
+     *
+     * @param bytes Сериализованное значение.
+     * @return Значение.
+     */
+    V deserialize(byte[] bytes);
+}
@@ -0,0 +1,45 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Канал инвалидаций в памяти процесса. Каждая реплика получает свой {@link InvalidationBus}
+ * через {@link #join()}, сообщение доставляется синхронно всем участникам, кроме отправителя.
+ * Используется в тестах вместо Redis Pub/Sub и при запуске одной реплики.
+ */
+public class InMemoryInvalidationHub {
+
+    private final List<Member> members = new CopyOnWriteArrayList<>();
+
+    /**
+     * Подключает новую реплику к каналу.
+     *
+     * @return Канал инвалидаций реплики.
+     */
+    public InvalidationBus join() {
+        Member member = new Member();
+        members.add(member);
+        return member;
+    }
+
+    private final class Member implements InvalidationBus {
+
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(String key) {
+            for (Member member : members) {
+                if (member != this) {
+                    member.listeners.forEach(listener -> listener.accept(key));
+                }
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Общий уровень кэша в памяти процесса. Заменяет внешнее хранилище в тестах
+ * и при запуске одной реплики без Redis (spring.cache.shared_tier: LOCAL).
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+
+    private final Map<String, StoredValue> values = new ConcurrentHashMap<>();
+    private final LongSupplier ticker;
+
+    /**
+     * Конструктор для создания нового экземпляра InMemorySharedCacheTier.
+     */
+    public InMemorySharedCacheTier() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Конструктор для создания нового экземпляра InMemorySharedCacheTier с заданным источником времени.
+     *
+     * @param ticker Источник времени в наносекундах.
+     */
+    public InMemorySharedCacheTier(LongSupplier ticker) {
+        this.ticker = ticker;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        StoredValue stored = values.get(key);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.expiresAt != 0 && ticker.getAsLong() - stored.expiresAt >= 0) {
+            values.remove(key, stored);
+            return null;
+        }
+        return stored.value.clone();
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        long expiresAt = ttl == null || ttl.isZero() ? 0 : ticker.getAsLong() + ttl.toNanos();
+        values.put(key, new StoredValue(value.clone(), expiresAt));
+    }
+
+    @Override
+    public void delete(String key) {
+        values.remove(key);
+    }
+
+    private record StoredValue(byte[] value, long expiresAt) {
+    }
+}
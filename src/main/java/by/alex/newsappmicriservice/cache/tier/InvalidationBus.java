@@ -0,0 +1,37 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Канал рассылки инвалидаций между репликами.
+ * Реплика публикует ключ измененного или удаленного элемента, остальные реплики
+ * удаляют его из своего локального кэша. Собственные сообщения реплике не доставляются.
+ * Доставка не гарантируется, поэтому расхождение локальных кэшей дополнительно ограничено временем жизни элементов.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Рассылает ключ элемента другим репликам.
+     *
+     * @param key Ключ элемента.
+     */
+    void publish(String key);
+
+    /**
+     * Рассылает ключи нескольких элементов другим репликам.
+     * Реализации с сетевым каналом отправляют их одним сообщением.
+     *
+     * @param keys Ключи элементов.
+     */
+    default void publishAll(Collection<String> keys) {
+        keys.forEach(this::publish);
+    }
+
+    /**
+     * Подписывает обработчик на ключи, опубликованные другими репликами.
+     *
+     * @param listener Обработчик ключей.
+     */
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,61 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Канал инвалидаций на Redis Pub/Sub. Сообщение имеет вид {@code <id реплики>:<ключ>[,<ключ>...]},
+ * по id реплика отбрасывает собственные сообщения. Ключи не должны содержать запятых.
+ */
+public class RedisInvalidationBus implements InvalidationBus {
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ChannelTopic topic;
+
+    /**
+     * Конструктор для создания нового экземпляра RedisInvalidationBus.
+     *
+     * @param redisTemplate     Шаблон для публикации сообщений.
+     * @param listenerContainer Контейнер подписок Redis.
+     * @param channel           Имя канала.
+     */
+    public RedisInvalidationBus(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+                                String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(String key) {
+        redisTemplate.convertAndSend(topic.getTopic(), instanceId + ":" + key);
+    }
+
+    @Override
+    public void publishAll(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            redisTemplate.convertAndSend(topic.getTopic(), instanceId + ":" + String.join(",", keys));
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        String ownPrefix = instanceId + ":";
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (!body.startsWith(ownPrefix)) {
+                for (String key : body.substring(body.indexOf(':') + 1).split(",")) {
+                    listener.accept(key);
+                }
+            }
+        }, topic);
+    }
+}
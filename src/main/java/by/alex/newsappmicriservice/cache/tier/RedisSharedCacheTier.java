@@ -0,0 +1,34 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Общий уровень кэша в Redis. Значения хранятся как строки Redis с временем жизни.
+ */
+@RequiredArgsConstructor
+public class RedisSharedCacheTier implements SharedCacheTier {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    @Override
+    public byte[] get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void put(String key, byte[] value, Duration ttl) {
+        if (ttl == null || ttl.isZero()) {
+            redisTemplate.opsForValue().set(key, value);
+        } else {
+            redisTemplate.opsForValue().set(key, value, ttl);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(key);
+    }
+}
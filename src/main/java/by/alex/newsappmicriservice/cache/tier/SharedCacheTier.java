@@ -0,0 +1,36 @@
+package by.alex.newsappmicriservice.cache.tier;
+
+import java.time.Duration;
+
+/**
+ * Общий для всех реплик уровень кэша, расположенный вне процесса (например, Redis).
+ * Значения хранятся в сериализованном виде, ключи - строки с префиксом кэша.
+ * Реализации могут выбрасывать исключения при недоступности хранилища,
+ * вызывающая сторона продолжает работать с локальным кэшем.
+ */
+public interface SharedCacheTier {
+
+    /**
+     * Получает сериализованное значение по ключу.
+     *
+     * @param key Ключ элемента.
+     * @return Сериализованное значение или null, если элемент не найден или истек.
+     */
+    byte[] get(String key);
+
+    /**
+     * Сохраняет сериализованное значение.
+     *
+     * @param key   Ключ элемента.
+     * @param value Сериализованное значение.
+     * @param ttl   Время жизни элемента, null - без ограничения.
+     */
+    void put(String key, byte[] value, Duration ttl);
+
+    /**
+     * Удаляет элемент по ключу.
+     *
+     * @param key Ключ элемента.
+     */
+    void delete(String key);
+}
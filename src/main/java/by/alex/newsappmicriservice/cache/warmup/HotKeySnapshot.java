@@ -0,0 +1,99 @@
+package by.alex.newsappmicriservice.cache.warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Файл с набором ключей, находившихся в кэше при остановке приложения.
+ * Ключи сортируются и записываются разностями с предыдущим ключом в формате varint,
+ * поэтому близкие id занимают 1-2 байта. Формат: магическое число, количество ключей, разности.
+ */
+public final class HotKeySnapshot {
+
+    private static final int MAGIC = 0x4E435331;
+
+    private HotKeySnapshot() {
+    }
+
+    /**
+     * Записывает ключи в файл. Файл заменяется атомарно, поэтому прерванная запись не портит предыдущий снимок.
+     *
+     * @param file Путь к файлу снимка.
+     * @param keys Неотрицательные ключи.
+     * @throws IOException Если файл не удалось записать.
+     */
+    public static void write(Path file, Collection<Long> keys) throws IOException {
+        long[] sorted = keys.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(sorted.length);
+            long previous = 0;
+            for (long key : sorted) {
+                writeVarLong(out, key - previous);
+                previous = key;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Читает ключи из файла.
+     *
+     * @param file Путь к файлу снимка.
+     * @return Ключи в порядке возрастания или пустой список, если файла нет.
+     * @throws IOException Если файл не удалось прочитать или он имеет неизвестный формат.
+     */
+    public static List<Long> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Unknown cache snapshot format: " + file);
+            }
+            int count = in.readInt();
+            List<Long> keys = new ArrayList<>(count);
+            long key = 0;
+            for (int i = 0; i < count; i++) {
+                key += readVarLong(in);
+                keys.add(key);
+            }
+            return keys;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed cache snapshot");
+    }
+}
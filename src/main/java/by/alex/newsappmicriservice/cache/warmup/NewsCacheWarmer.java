@@ -0,0 +1,169 @@
+package by.alex.newsappmicriservice.cache.warmup;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.entity.News;
+import by.alex.newsappmicriservice.mapper.NewsMapper;
+import by.alex.newsappmicriservice.repository.NewsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Прогрев кэша новостей при запуске приложения.
+ * Загружает новости из снимка ключей, записанного при предыдущей остановке, и заданное количество
+ * самых свежих новостей (по полям time и id). Новости снимка загружаются пачками параллельно, а самые свежие -
+ * последовательно по курсору ленты, чтобы каждая пачка читалась по индексу без COUNT и OFFSET.
+ * Запуск ждет прогрева не дольше заданного времени, после чего приложение становится готовым
+ * к приему запросов, а незавершенный прогрев продолжается в фоне.
+ * Новости добавляются через {@link AbstractCache#getOrLoad}, поэтому не перезаписывают значения,
+ * уже сохраненные запросами, и не рассылают инвалидации другим репликам.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class NewsCacheWarmer {
+
+    /**
+     * Количество новостей, загружаемых одним запросом к базе данных.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private final AbstractCache<Long, ResponseNewsDto> newsCache;
+    private final NewsRepository repository;
+    private final NewsMapper mapper;
+    /**
+     * Количество самых свежих новостей для прогрева.
+     */
+    private final int newestCount;
+    /**
+     * Файл снимка ключей или null, если снимок не используется.
+     */
+    private final Path snapshotFile;
+    /**
+     * Время, в течение которого запуск ожидает окончания прогрева.
+     */
+    private final Duration budget;
+    private final int threads;
+
+    /**
+     * Прогревает кэш после создания контекста и до перехода приложения в состояние готовности.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        List<Long> snapshotKeys = readSnapshot();
+        if (snapshotKeys.isEmpty() && newestCount <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("news-cache-warmup-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < snapshotKeys.size(); from += BATCH_SIZE) {
+            List<Long> ids = snapshotKeys.subList(from, Math.min(from + BATCH_SIZE, snapshotKeys.size()));
+            batches.add(CompletableFuture.runAsync(() -> cache(repository.findAllById(ids), loaded), executor));
+        }
+        if (newestCount > 0) {
+            batches.add(CompletableFuture.runAsync(() -> cacheNewest(loaded), executor));
+        }
+
+        CompletableFuture<Void> warmUp = CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new));
+        warmUp.whenComplete((result, e) -> {
+            executor.shutdown();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (e == null) {
+                log.info("Cache warm-up finished: {} news loaded in {} ms", loaded.get(), millis);
+            } else {
+                log.warn("Cache warm-up failed after {} news loaded in {} ms: {}", loaded.get(), millis,
+                        e.getMessage());
+            }
+        });
+        try {
+            warmUp.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.info("Cache warm-up exceeded {} and continues in background", budget);
+        } catch (ExecutionException e) {
+            // ошибка уже записана в журнал в whenComplete
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Записывает ключи новостей из кэша в снимок при остановке приложения.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        List<Long> keys = newsCache.getAllValues().stream()
+                .map(ResponseNewsDto::id)
+                .toList();
+        try {
+            HotKeySnapshot.write(snapshotFile, keys);
+            log.info("Cache snapshot with {} keys written to {}", keys.size(), snapshotFile);
+        } catch (IOException e) {
+            log.warn("Cache snapshot was not written to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private List<Long> readSnapshot() {
+        if (snapshotFile == null) {
+            return List.of();
+        }
+        try {
+            return HotKeySnapshot.read(snapshotFile);
+        } catch (IOException e) {
+            log.warn("Cache snapshot {} was not read: {}", snapshotFile, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Загружает newestCount самых свежих новостей пачками, каждая следующая пачка читается после последней
+     * новости предыдущей.
+     */
+    private void cacheNewest(AtomicInteger loaded) {
+        int remaining = newestCount;
+        int limit = Math.min(BATCH_SIZE, remaining);
+        List<News> batch = repository.findFeed(PageRequest.ofSize(limit));
+        while (!batch.isEmpty()) {
+            cache(batch, loaded);
+            remaining -= batch.size();
+            if (remaining <= 0 || batch.size() < limit) {
+                return;
+            }
+            News last = batch.get(batch.size() - 1);
+            limit = Math.min(BATCH_SIZE, remaining);
+            batch = repository.findFeedAfter(last.getTime(), last.getId(), PageRequest.ofSize(limit));
+        }
+    }
+
+    private void cache(List<News> news, AtomicInteger loaded) {
+        for (News entity : news) {
+            ResponseNewsDto dto = mapper.toDto(entity);
+            newsCache.getOrLoad(dto.id(), id -> dto);
+            loaded.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package by.alex.newsappmicriservice.cache.weigher;
+
+import by.alex.newsappmicriservice.dto.CommentDto;
+
+import java.util.List;
+
+/**
+ * Оценивает размер страницы комментариев в куче в байтах (64-битная JVM со сжатыми указателями).
+ * Учитываются узлы кэша и ключ-строка, список и каждый комментарий с его полями.
+ * Как и {@link ResponseNewsDtoWeigher}, символы строк считаются по 2 байта - это верхняя граница.
+ */
+public class CommentPageWeigher implements Weigher<String, List<CommentDto>> {
+
+    /**
+     * Узел ConcurrentHashMap и узел списка кэша.
+     */
+    private static final int ENTRY_OVERHEAD = 32 + 40;
+    /**
+     * Неизменяемый список и заголовок его массива.
+     */
+    private static final int LIST_OVERHEAD = 16 + 16;
+    /**
+     * Объект CommentDto с пятью ссылками и ссылка на него в массиве списка.
+     */
+    private static final int COMMENT = 32 + 4;
+    private static final int ID = 16;
+    /**
+     * LocalDateTime вместе с LocalDate и LocalTime.
+     */
+    private static final int TIME = 3 * 24;
+    /**
+     * Объект String и заголовок массива байт.
+     */
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    /**
+     * Вычисляет примерный размер страницы комментариев в байтах.
+     *
+     * @param key      Ключ страницы.
+     * @param comments Комментарии страницы.
+     * @return Примерный размер в байтах.
+     */
+    @Override
+    public int weigh(String key, List<CommentDto> comments) {
+        long size = ENTRY_OVERHEAD + stringSize(key) + LIST_OVERHEAD;
+        for (CommentDto comment : comments) {
+            size += COMMENT
+                    + (comment.getId() != null ? ID : 0)
+                    + (comment.getTime() != null ? TIME : 0)
+                    + stringSize(comment.getText())
+                    + stringSize(comment.getUsername())
+                    + stringSize(comment.getNewsId());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private static long stringSize(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return align(STRING_OVERHEAD + 2L * value.length());
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
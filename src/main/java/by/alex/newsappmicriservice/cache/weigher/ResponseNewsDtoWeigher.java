@@ -0,0 +1,58 @@
+package by.alex.newsappmicriservice.cache.weigher;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+
+/**
+ * Оценивает размер новости в куче в байтах (64-битная JVM со сжатыми указателями).
+ * Учитываются узлы кэша и ключ, сама запись, id, время, а также заголовок и текст.
+ * Символы строк считаются по 2 байта, поэтому для латиницы оценка завышена -
+ * это верхняя граница, а не точный размер.
+ */
+public class ResponseNewsDtoWeigher implements Weigher<Long, ResponseNewsDto> {
+
+    /**
+     * Узел ConcurrentHashMap, узел списка кэша и ключ Long.
+     */
+    private static final int ENTRY_OVERHEAD = 32 + 40 + 16;
+    /**
+     * Запись ResponseNewsDto с четырьмя ссылками.
+     */
+    private static final int RECORD = 32;
+    private static final int ID = 16;
+    /**
+     * LocalDateTime вместе с LocalDate и LocalTime.
+     */
+    private static final int TIME = 3 * 24;
+    /**
+     * Объект String и заголовок массива байт.
+     */
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    /**
+     * Вычисляет примерный размер новости в байтах.
+     *
+     * @param id   Идентификатор новости.
+     * @param news Новость.
+     * @return Примерный размер в байтах.
+     */
+    @Override
+    public int weigh(Long id, ResponseNewsDto news) {
+        long size = ENTRY_OVERHEAD + RECORD
+                + (news.id() != null ? ID : 0)
+                + (news.time() != null ? TIME : 0)
+                + stringSize(news.title())
+                + stringSize(news.text());
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private static long stringSize(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return align(STRING_OVERHEAD + 2L * value.length());
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
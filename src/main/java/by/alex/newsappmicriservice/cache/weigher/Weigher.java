@@ -0,0 +1,21 @@
+package by.alex.newsappmicriservice.cache.weigher;
+
+/**
+ * Интерфейс вычисления веса элемента кэша, например его примерного размера в байтах.
+ * Кэши с весами вытесняют элементы, пока суммарный вес не станет меньше заданного бюджета.
+ *
+ * @param <K> Тип ключей.
+ * @param <V> Тип значений.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Вычисляет вес элемента. Вес элемента не должен меняться, пока элемент находится в кэше.
+     *
+     * @param key   Ключ элемента.
+     * @param value Значение элемента.
+     * @return Неотрицательный вес элемента.
+     */
+    int weigh(K key, V value);
+}
@@ -1,26 +1,67 @@
 package by.alex.newsappmicriservice.configuration;
 
 import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.NegativeCache;
+import by.alex.newsappmicriservice.cache.QueryCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLFUCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.cache.impl.ExpiringCache;
 import by.alex.newsappmicriservice.cache.impl.LFUCache;
 import by.alex.newsappmicriservice.cache.impl.LRUCache;
+import by.alex.newsappmicriservice.cache.impl.OffHeapCache;
+import by.alex.newsappmicriservice.cache.impl.TinyLFUCache;
+import by.alex.newsappmicriservice.cache.impl.TwoTierCache;
+import by.alex.newsappmicriservice.cache.metrics.InstrumentedCache;
+import by.alex.newsappmicriservice.cache.metrics.NegativeCacheMetrics;
+import by.alex.newsappmicriservice.cache.metrics.NewsCacheEndpoint;
+import by.alex.newsappmicriservice.cache.metrics.QueryCacheMetrics;
+import by.alex.newsappmicriservice.cache.serializer.ResponseNewsDtoSerializer;
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import by.alex.newsappmicriservice.cache.tier.InvalidationBus;
+import by.alex.newsappmicriservice.cache.tier.SharedCacheTier;
+import by.alex.newsappmicriservice.cache.weigher.CommentPageWeigher;
+import by.alex.newsappmicriservice.cache.weigher.ResponseNewsDtoWeigher;
+import by.alex.newsappmicriservice.cache.weigher.Weigher;
+import by.alex.newsappmicriservice.cache.warmup.NewsCacheWarmer;
+import by.alex.newsappmicriservice.dto.CommentDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.mapper.NewsMapper;
+import by.alex.newsappmicriservice.repository.NewsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Класс конфигурации для настройки кэша новостей.
- * Используется для создания и настройки экземпляра кэша новостей.
+ * Используется для создания и настройки экземпляра кэша новостей и других именованных кэшей,
+ * на которые ссылаются аннотации кэширования по имени бина.
  */
 @Slf4j
+@Setter
 @Configuration
 @ConfigurationProperties(prefix = "spring.cache")
 public class CacheConfig {
 
     /**
      * Алгоритм кэширования, который будет использоваться для кэширования новостей.
-     * Поддерживаемые алгоритмы: LFU (Least Frequently Used) и LRU (Least Recently Used).
+     * Поддерживаемые алгоритмы: LFU (Least Frequently Used), LRU (Least Recently Used),
+     * CONCURRENT_LRU (потокобезопасный LRU, используется по умолчанию), CONCURRENT_LFU
+     * (потокобезопасный LFU со старением частот), TINYLFU (W-TinyLFU с фильтром допуска)
+     * и OFF_HEAP (сериализованные значения вне кучи, размер задается в max_bytes).
      */
     private String algorithm;
 
@@ -29,16 +70,297 @@ public class CacheConfig {
      */
     private int max_size;
 
+    /**
+     * Бюджет памяти кэша новостей в куче. Если задан, алгоритмы CONCURRENT_LRU и CONCURRENT_LFU
+     * ограничивают не количество новостей, а их суммарный примерный размер ({@link ResponseNewsDtoWeigher}).
+     */
+    private DataSize max_weight;
+
+    /**
+     * Объем памяти вне кучи для алгоритма OFF_HEAP. Учитывается в -XX:MaxDirectMemorySize.
+     */
+    private DataSize max_bytes = DataSize.ofMegabytes(64);
+
+    /**
+     * Время жизни новости в кэше после записи. Ограничивает время, в течение которого видны
+     * устаревшие данные после изменений, сделанных другой репликой или скриптами Liquibase.
+     */
+    private Duration expire_after_write;
+
+    /**
+     * Время жизни новости в кэше после последнего обращения.
+     */
+    private Duration expire_after_access;
+
+    /**
+     * Время после записи, по истечении которого новость при чтении перезагружается в фоне.
+     * Должно быть меньше expire_after_write, чтобы популярные новости обновлялись до истечения.
+     */
+    private Duration refresh_after_write;
+
+    /**
+     * Количество потоков для фоновой перезагрузки элементов кэша. В режиме виртуальных потоков не используется.
+     */
+    private int refresh_threads = 2;
+
+    /**
+     * Максимальное количество id несуществующих новостей, которые запоминает негативный кэш.
+     */
+    private int negative_max_size = 10_000;
+
+    /**
+     * Время, в течение которого id считается несуществующим без повторного обращения к базе данных.
+     */
+    private Duration negative_ttl = Duration.ofSeconds(30);
+
+    /**
+     * Максимальное количество запросов списков новостей (страницы, поиск), результаты которых запоминаются.
+     */
+    private int query_max_size = 1_000;
+
+    /**
+     * Время жизни результата запроса списка новостей. Ограничивает время, в течение которого
+     * не видны новости, созданные или удаленные другой репликой.
+     */
+    private Duration query_ttl = Duration.ofSeconds(30);
+
+    /**
+     * Максимальное количество комментариев в кэше комментариев.
+     */
+    private int comment_max_size = 1_000;
+
+    /**
+     * Время жизни комментария в кэше. Комментарии изменяются в другом сервисе без инвалидации,
+     * поэтому время жизни ограничивает время, в течение которого видны устаревшие комментарии.
+     */
+    private Duration comment_ttl = Duration.ofMinutes(1);
+
+    /**
+     * Время после записи, по истечении которого комментарий при чтении перезагружается в фоне,
+     * а до окончания перезагрузки возвращается прежнее значение.
+     */
+    private Duration comment_refresh_after_write = Duration.ofSeconds(40);
+
+    /**
+     * Бюджет памяти кэша страниц комментариев в куче ({@link CommentPageWeigher}).
+     */
+    private DataSize comment_page_max_weight = DataSize.ofMegabytes(16);
+
+    /**
+     * Время жизни страницы комментариев в кэше. Короткое, потому что комментарии изменяются в другом сервисе
+     * без инвалидации, но достаточное, чтобы запросы популярной новости не доходили до сервиса комментариев.
+     */
+    private Duration comment_page_ttl = Duration.ofSeconds(30);
+
+    /**
+     * Время после записи, по истечении которого страница комментариев при чтении перезагружается в фоне.
+     */
+    private Duration comment_page_refresh_after_write = Duration.ofSeconds(10);
+
+    /**
+     * Время жизни новости в общем кэше (spring.cache.shared_tier, см. {@link SharedCacheTierConfig}).
+     * Фоновая перезагрузка локального кэша читает общий кэш, поэтому значение не должно превышать
+     * refresh_after_write, иначе изменения в базе данных в обход приложения будут видны позже.
+     */
+    private Duration shared_ttl = Duration.ofMinutes(4);
+
+    /**
+     * Количество самых свежих новостей, загружаемых в кэш при запуске.
+     */
+    private int warmup_size;
+
+    /**
+     * Файл снимка ключей кэша, который записывается при остановке и используется для прогрева при запуске.
+     * Если не задан, снимок не используется.
+     */
+    private Path warmup_snapshot;
+
+    /**
+     * Время, в течение которого запуск ожидает окончания прогрева, прежде чем приложение станет готовым.
+     */
+    private Duration warmup_budget = Duration.ofSeconds(10);
+
+    /**
+     * Количество потоков, параллельно загружающих новости при прогреве.
+     */
+    private int warmup_threads = 4;
+
     /**
      * Создает и настраивает экземпляр кэша новостей в зависимости от выбранного алгоритма.
+     * Если задано время жизни или обновления, кэш оборачивается в {@link ExpiringCache}.
+     * Если настроен общий уровень кэша, локальный кэш становится первым уровнем {@link TwoTierCache}.
+     * Метрики кэша публикуются в Micrometer через {@link InstrumentedCache}.
      *
+     * @param meterRegistry        Реестр метрик.
+     * @param sharedCacheTier      Общий уровень кэша, если он настроен.
+     * @param invalidationBus      Канал рассылки инвалидаций между репликами.
+     * @param cacheRefreshExecutor Исполнитель фоновых перезагрузок.
      * @return Экземпляр кэша новостей.
      */
     @Bean
-    public AbstractCache<Long, ResponseNewsDto> newsCache() {
-        return "LFU".equals(algorithm)
-                ? new LFUCache<>(max_size)
-                : new LRUCache<>(max_size);
+    public InstrumentedCache<Long, ResponseNewsDto> newsCache(MeterRegistry meterRegistry,
+                                                              ObjectProvider<SharedCacheTier> sharedCacheTier,
+                                                              ObjectProvider<InvalidationBus> invalidationBus,
+                                                              ExecutorService cacheRefreshExecutor) {
+        ValueSerializer<ResponseNewsDto> serializer = new ResponseNewsDtoSerializer();
+        Weigher<Long, ResponseNewsDto> weigher = new ResponseNewsDtoWeigher();
+        AbstractCache<Long, ResponseNewsDto> cache;
+        if (expire_after_write == null && expire_after_access == null && refresh_after_write == null) {
+            cache = createCache(serializer, weigher);
+        } else {
+            cache = new ExpiringCache<>(
+                    createCache(ExpiringCache.entrySerializer(serializer), ExpiringCache.entryWeigher(weigher)),
+                    expire_after_write, expire_after_access, refresh_after_write, cacheRefreshExecutor);
+        }
+        SharedCacheTier shared = sharedCacheTier.getIfAvailable();
+        if (shared != null) {
+            cache = new TwoTierCache<>(cache, shared, invalidationBus.getObject(), serializer, Long::valueOf,
+                    "news:", shared_ttl);
+        }
+        return new InstrumentedCache<>(cache, "newsCache", meterRegistry);
+    }
+
+    /**
+     * Создает кэш комментариев, полученных из сервиса комментариев, с ключом {@code <id новости>:<id комментария>}.
+     *
+     * @param meterRegistry        Реестр метрик.
+     * @param cacheRefreshExecutor Исполнитель фоновых перезагрузок.
+     * @return Экземпляр кэша комментариев.
+     */
+    @Bean
+    public InstrumentedCache<String, CommentDto> commentCache(MeterRegistry meterRegistry,
+                                                              ExecutorService cacheRefreshExecutor) {
+        return new InstrumentedCache<>(
+                new ExpiringCache<>(new ConcurrentLRUCache<>(comment_max_size), comment_ttl, null,
+                        comment_refresh_after_write, cacheRefreshExecutor),
+                "commentCache", meterRegistry);
+    }
+
+    /**
+     * Создает кэш страниц комментариев, полученных из сервиса комментариев,
+     * с ключом {@code <id новости>:<страница>:<размер>}. Размер кэша ограничен суммарным весом страниц.
+     *
+     * @param meterRegistry        Реестр метрик.
+     * @param cacheRefreshExecutor Исполнитель фоновых перезагрузок.
+     * @return Экземпляр кэша страниц комментариев.
+     */
+    @Bean
+    public InstrumentedCache<String, List<CommentDto>> commentPageCache(MeterRegistry meterRegistry,
+                                                                        ExecutorService cacheRefreshExecutor) {
+        return new InstrumentedCache<>(
+                new ExpiringCache<>(
+                        new ConcurrentLRUCache<>(comment_page_max_weight.toBytes(),
+                                ExpiringCache.entryWeigher(new CommentPageWeigher())),
+                        comment_page_ttl, null, comment_page_refresh_after_write, cacheRefreshExecutor),
+                "commentPageCache", meterRegistry);
     }
 
- }
+    /**
+     * Создает Actuator endpoint с настройками и статистикой кэша новостей.
+     *
+     * @param newsCache Кэш новостей.
+     * @return Endpoint кэша новостей.
+     */
+    @Bean
+    public NewsCacheEndpoint newsCacheEndpoint(InstrumentedCache<Long, ResponseNewsDto> newsCache) {
+        return new NewsCacheEndpoint(newsCache, algorithm, max_size,
+                max_weight == null ? null : max_weight.toBytes());
+    }
+
+    /**
+     * Создает компонент прогрева кэша новостей при запуске. Прогрев заполняет кэш в обход метрик обращений.
+     *
+     * @param newsCache  Кэш новостей.
+     * @param repository Репозиторий новостей.
+     * @param mapper     Маппер новостей.
+     * @return Компонент прогрева кэша.
+     */
+    @Bean
+    public NewsCacheWarmer newsCacheWarmer(InstrumentedCache<Long, ResponseNewsDto> newsCache,
+                                           NewsRepository repository, NewsMapper mapper) {
+        return new NewsCacheWarmer(newsCache.delegate(), repository, mapper, warmup_size, warmup_snapshot,
+                warmup_budget, warmup_threads);
+    }
+
+    /**
+     * Создает исполнитель фоновой перезагрузки элементов кэша. В режиме виртуальных потоков каждая перезагрузка
+     * выполняется на новом виртуальном потоке, иначе - на refresh_threads потоках-демонах.
+     *
+     * @param environment Окружение, в котором проверяется spring.threads.virtual.enabled.
+     * @return Исполнитель перезагрузок.
+     */
+    @Bean
+    public ExecutorService cacheRefreshExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("news-cache-refresh-", 0).factory());
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("news-cache-refresh-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(refresh_threads, threadFactory);
+    }
+
+    /**
+     * Создает кэш выбранного алгоритма.
+     *
+     * @param serializer Сериализатор значений для кэша вне кучи.
+     * @param weigher    Функция вычисления веса значений, используется, если задан max_weight.
+     * @param <V>        Тип значений в кэше.
+     * @return Экземпляр кэша.
+     */
+    private <V> AbstractCache<Long, V> createCache(ValueSerializer<V> serializer, Weigher<Long, V> weigher) {
+        return switch (String.valueOf(algorithm)) {
+            case "LFU" -> new LFUCache<>(max_size);
+            case "LRU" -> new LRUCache<>(max_size);
+            case "CONCURRENT_LFU" -> max_weight == null
+                    ? new ConcurrentLFUCache<>(max_size)
+                    : new ConcurrentLFUCache<>(max_weight.toBytes(), weigher, 10 * max_size);
+            case "TINYLFU" -> new TinyLFUCache<>(max_size);
+            case "OFF_HEAP" -> new OffHeapCache<>(max_bytes.toBytes(), serializer);
+            default -> max_weight == null
+                    ? new ConcurrentLRUCache<>(max_size)
+                    : new ConcurrentLRUCache<>(max_weight.toBytes(), weigher);
+        };
+    }
+
+    /**
+     * Создает негативный кэш для id новостей, которых нет в базе данных.
+     *
+     * @return Экземпляр негативного кэша.
+     */
+    @Bean
+    public NegativeCache<Long> missingNewsCache() {
+        return new NegativeCache<>(negative_max_size, negative_ttl);
+    }
+
+    /**
+     * Публикует метрики негативного кэша в Micrometer.
+     *
+     * @param missingNewsCache Негативный кэш.
+     * @return Регистратор метрик негативного кэша.
+     */
+    @Bean
+    public NegativeCacheMetrics missingNewsCacheMetrics(NegativeCache<Long> missingNewsCache) {
+        return new NegativeCacheMetrics(missingNewsCache, "missingNewsCache");
+    }
+
+    /**
+     * Создает кэш результатов запросов списков новостей.
+     *
+     * @return Экземпляр кэша результатов запросов.
+     */
+    @Bean
+    public QueryCache newsQueryCache() {
+        return new QueryCache(query_max_size, query_ttl);
+    }
+
+    /**
+     * Публикует метрики кэша результатов запросов в Micrometer.
+     *
+     * @param newsQueryCache Кэш результатов запросов.
+     * @return Регистратор метрик кэша результатов запросов.
+     */
+    @Bean
+    public QueryCacheMetrics newsQueryCacheMetrics(QueryCache newsQueryCache) {
+        return new QueryCacheMetrics(newsQueryCache, "newsQueryCache");
+    }
+}
@@ -0,0 +1,212 @@
+package by.alex.newsappmicriservice.configuration;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.service.impl.APIClient;
+import by.alex.newsappmicriservice.service.impl.ReactiveCommentClient;
+import by.alex.newsappmicriservice.service.impl.ResilientCommentClient;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.netty.channel.ChannelOption;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Класс конфигурации для обращений к сервису комментариев.
+ * Адрес сервиса и тайм-ауты соединения и чтения HTTP клиента задаются в comments.url и
+ * spring.cloud.openfeign.client.config.comments, остальные ограничения - здесь.
+ */
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "comments")
+public class CommentClientConfig {
+
+    /**
+     * Количество потоков, которые запрашивают комментарии параллельно с загрузкой новостей.
+     * Ограничивает число одновременных запросов к сервису комментариев. В режиме виртуальных потоков не используется.
+     */
+    private int fetch_threads = 16;
+
+    /**
+     * Адрес сервиса комментариев.
+     */
+    private String url;
+
+    /**
+     * Максимальное число соединений неблокирующего клиента (профиль reactive).
+     * Feign клиент настраивается в spring.cloud.openfeign.httpclient.
+     */
+    private int max_connections = 64;
+
+    /**
+     * Тайм-аут соединения неблокирующего клиента.
+     */
+    private Duration connect_timeout = Duration.ofMillis(500);
+
+    /**
+     * Тайм-аут ответа неблокирующего клиента.
+     */
+    private Duration read_timeout = Duration.ofMillis(1500);
+
+    /**
+     * Максимальное число одновременных запросов к сервису комментариев от всех потоков.
+     */
+    private int max_concurrent_calls = 16;
+
+    /**
+     * Время ожидания свободного места в bulkhead, после которого запрос отклоняется.
+     */
+    private Duration max_wait = Duration.ZERO;
+
+    /**
+     * Процент неудачных запросов, при котором предохранитель размыкается.
+     */
+    private float failure_rate_threshold = 50;
+
+    /**
+     * Количество последних запросов, по которым вычисляется процент неудачных.
+     */
+    private int sliding_window_size = 20;
+
+    /**
+     * Время, в течение которого разомкнутый предохранитель не пропускает запросы.
+     */
+    private Duration open_duration = Duration.ofSeconds(30);
+
+    /**
+     * Максимальное количество страниц комментариев, которые запоминаются для ответа при недоступности сервиса.
+     */
+    private int stale_max_size = 1_000;
+
+    /**
+     * Время, в течение которого после ответа 404 или 405 на пакетный запрос комментарии запрашиваются по каждой
+     * новости, после чего пакетный запрос пробуется снова.
+     */
+    private Duration batch_retry_interval = Duration.ofMinutes(5);
+
+    /**
+     * Создает исполнитель запросов к сервису комментариев. В режиме виртуальных потоков каждый запрос
+     * выполняется на новом виртуальном потоке, а число одновременных запросов ограничивает bulkhead,
+     * иначе - на fetch_threads потоках-демонах. Время выполнения задач публикуется как executor.execution
+     * с тегом name=commentFetch.
+     *
+     * @param environment   Окружение, в котором проверяется spring.threads.virtual.enabled.
+     * @param meterRegistry Реестр метрик.
+     * @return Исполнитель запросов комментариев.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService commentFetchExecutor(Environment environment, MeterRegistry meterRegistry) {
+        ExecutorService executor;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("comment-fetch-", 0).factory());
+        } else {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("comment-fetch-");
+            threadFactory.setDaemon(true);
+            executor = Executors.newFixedThreadPool(fetch_threads, threadFactory);
+        }
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "commentFetch");
+    }
+
+    /**
+     * Создает ограничение одновременных запросов к сервису комментариев.
+     *
+     * @return Bulkhead сервиса комментариев.
+     */
+    @Bean
+    public Bulkhead commentBulkhead() {
+        return Bulkhead.of("comments", BulkheadConfig.custom()
+                .maxConcurrentCalls(max_concurrent_calls)
+                .maxWaitDuration(max_wait)
+                .build());
+    }
+
+    /**
+     * Создает предохранитель обращений к сервису комментариев. Ответы 4xx не учитываются.
+     *
+     * @return Предохранитель сервиса комментариев.
+     */
+    @Bean
+    public CircuitBreaker commentCircuitBreaker() {
+        return CircuitBreaker.of("comments", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failure_rate_threshold)
+                .slidingWindowSize(sliding_window_size)
+                .minimumNumberOfCalls(sliding_window_size / 2)
+                .waitDurationInOpenState(open_duration)
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .ignoreException(ReactiveCommentClient::isClientError)
+                .build());
+    }
+
+    /**
+     * Создает хранилище последних успешно полученных страниц комментариев для ответа при недоступности сервиса.
+     *
+     * @return Последние полученные страницы комментариев.
+     */
+    @Bean
+    public ConcurrentLRUCache<String, List<CommentDto>> staleCommentPages() {
+        return new ConcurrentLRUCache<>(stale_max_size);
+    }
+
+    /**
+     * Создает клиент сервиса комментариев с bulkhead, предохранителем и ответом последними полученными комментариями.
+     *
+     * @param apiClient            Feign клиент сервиса комментариев.
+     * @param commentPageCache     Кэш страниц комментариев.
+     * @param commentFetchExecutor Исполнитель запросов комментариев.
+     * @return Клиент сервиса комментариев.
+     */
+    @Bean
+    public ResilientCommentClient resilientCommentClient(APIClient apiClient,
+                                                         AbstractCache<String, List<CommentDto>> commentPageCache,
+                                                         ExecutorService commentFetchExecutor) {
+        return new ResilientCommentClient(apiClient, commentBulkhead(), commentCircuitBreaker(), commentPageCache,
+                staleCommentPages(), commentFetchExecutor, batch_retry_interval);
+    }
+
+    /**
+     * Создает неблокирующий клиент сервиса комментариев (профиль reactive) с пулом соединений Reactor Netty.
+     * Разделяет с {@link ResilientCommentClient} bulkhead, предохранитель и кэши страниц.
+     *
+     * @param webClientBuilder Построитель WebClient.
+     * @param commentPageCache Кэш страниц комментариев.
+     * @return Неблокирующий клиент сервиса комментариев.
+     */
+    @Bean
+    @Profile("reactive")
+    public ReactiveCommentClient reactiveCommentClient(WebClient.Builder webClientBuilder,
+                                                       AbstractCache<String, List<CommentDto>> commentPageCache) {
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.builder("comments")
+                        .maxConnections(max_connections)
+                        .pendingAcquireTimeout(connect_timeout)
+                        .build())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connect_timeout.toMillis())
+                .responseTimeout(read_timeout);
+        WebClient webClient = webClientBuilder
+                .baseUrl(url)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new ReactiveCommentClient(webClient, commentBulkhead(), commentCircuitBreaker(), commentPageCache,
+                staleCommentPages());
+    }
+}
@@ -0,0 +1,96 @@
+package by.alex.newsappmicriservice.configuration;
+
+import by.alex.newsappmicriservice.cache.tier.InMemoryInvalidationHub;
+import by.alex.newsappmicriservice.cache.tier.InMemorySharedCacheTier;
+import by.alex.newsappmicriservice.cache.tier.InvalidationBus;
+import by.alex.newsappmicriservice.cache.tier.RedisInvalidationBus;
+import by.alex.newsappmicriservice.cache.tier.RedisSharedCacheTier;
+import by.alex.newsappmicriservice.cache.tier.SharedCacheTier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Класс конфигурации общего уровня кэша новостей, выбираемого в spring.cache.shared_tier:
+ * REDIS - общий кэш и рассылка инвалидаций через Redis, LOCAL - их замена в памяти процесса
+ * для тестов и запуска одной реплики. Если свойство не задано, кэш новостей остается локальным.
+ */
+@Configuration
+public class SharedCacheTierConfig {
+
+    /**
+     * Создает общий кэш в Redis.
+     *
+     * @param connectionFactory Фабрика соединений с Redis.
+     * @return Общий кэш.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "shared_tier", havingValue = "REDIS")
+    public SharedCacheTier redisSharedCacheTier(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.afterPropertiesSet();
+        return new RedisSharedCacheTier(redisTemplate);
+    }
+
+    /**
+     * Создает контейнер подписок Redis для получения инвалидаций.
+     *
+     * @param connectionFactory Фабрика соединений с Redis.
+     * @return Контейнер подписок.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "shared_tier", havingValue = "REDIS")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Создает канал инвалидаций на Redis Pub/Sub.
+     *
+     * @param redisTemplate     Шаблон для публикации сообщений.
+     * @param listenerContainer Контейнер подписок.
+     * @param channel           Имя канала.
+     * @return Канал инвалидаций.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "shared_tier", havingValue = "REDIS")
+    public InvalidationBus redisInvalidationBus(StringRedisTemplate redisTemplate,
+                                                RedisMessageListenerContainer listenerContainer,
+                                                @Value("${spring.cache.invalidation_channel:news-cache-invalidation}")
+                                                String channel) {
+        return new RedisInvalidationBus(redisTemplate, listenerContainer, channel);
+    }
+
+    /**
+     * Создает общий кэш в памяти процесса.
+     *
+     * @return Общий кэш.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "shared_tier", havingValue = "LOCAL")
+    public SharedCacheTier localSharedCacheTier() {
+        return new InMemorySharedCacheTier();
+    }
+
+    /**
+     * Создает канал инвалидаций в памяти процесса.
+     *
+     * @return Канал инвалидаций.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache", name = "shared_tier", havingValue = "LOCAL")
+    public InvalidationBus localInvalidationBus() {
+        return new InMemoryInvalidationHub().join();
+    }
+}
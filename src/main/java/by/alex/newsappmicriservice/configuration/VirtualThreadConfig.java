@@ -0,0 +1,40 @@
+package by.alex.newsappmicriservice.configuration;
+
+import by.alex.newsappmicriservice.metrics.VirtualThreadMetrics;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Класс конфигурации режима виртуальных потоков, включаемого в spring.threads.virtual.enabled.
+ * В этом режиме Spring Boot обрабатывает запросы Tomcat и задачи @Async на виртуальных потоках,
+ * а запросы к сервису комментариев и фоновые перезагрузки кэшей - на виртуальных потоках исполнителей
+ * commentFetchExecutor и cacheRefreshExecutor.
+ * Одновременные обращения к Postgres ограничивает пул соединений spring.datasource.hikari.
+ */
+@Setter
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConfigurationProperties(prefix = "virtual-threads")
+public class VirtualThreadConfig {
+
+    /**
+     * Минимальная длительность закрепления виртуального потока за потоком-носителем, попадающая в метрики.
+     */
+    private Duration pinned_threshold = Duration.ofMillis(20);
+
+    /**
+     * Создает метрики закрепления виртуальных потоков.
+     *
+     * @return Метрики виртуальных потоков.
+     */
+    @Bean(destroyMethod = "close")
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics(pinned_threshold);
+    }
+}
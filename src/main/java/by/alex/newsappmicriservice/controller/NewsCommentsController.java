@@ -0,0 +1,46 @@
+package by.alex.newsappmicriservice.controller;
+
+import by.alex.newsappmicriservice.dto.RequestNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
+import by.alex.newsappmicriservice.service.NewsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер для получения новости с комментариями в режиме поток-на-запрос.
+ * В профиле reactive его заменяет {@link ReactiveNewsCommentsController}.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/news")
+@RequiredArgsConstructor
+public class NewsCommentsController {
+
+    /**
+     * Сервис для работы с новостями.
+     */
+    private final NewsService<ResponseNewsDto, RequestNewsDto> newsService;
+
+    /**
+     * Получает новость по идентификатору с комментариями.
+     *
+     * @param id   Идентификатор новости.
+     * @param page Номер страницы комментариев.
+     * @param size Размер страницы комментариев.
+     * @return Ответ с новостью и комментариями и статусом OK.
+     */
+    @GetMapping("/{id}/comments")
+    public ResponseEntity<ResponseNewsDtoWithComments> getNewsByIdWithAllComments(@PathVariable Long id,
+                                                                                  @RequestParam(defaultValue = "0") int page,
+                                                                                  @RequestParam(defaultValue = "100") int size) {
+        ResponseNewsDtoWithComments newsWithComments = newsService.findNewsWithComments(id, page, size);
+        return ResponseEntity.ok(newsWithComments);
+    }
+}
@@ -1,10 +1,14 @@
 package by.alex.newsappmicriservice.controller;
 
 import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.CursorPage;
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.dto.RequestNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
 import by.alex.newsappmicriservice.service.NewsService;
+import by.alex.newsappmicriservice.service.export.ExportFormat;
+import by.alex.newsappmicriservice.service.export.NewsExporter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -33,6 +38,11 @@ public class NewsController {
      */
     private final NewsService<ResponseNewsDto, RequestNewsDto> newsService;
 
+    /**
+     * Сервис потоковой выгрузки новостей.
+     */
+    private final NewsExporter newsExporter;
+
     /**
      * Получает новость по идентификатору.
      *
@@ -70,6 +80,40 @@ public class NewsController {
         return ResponseEntity.ok(updatedNews);
     }
 
+    /**
+     * Создает несколько новостей одним запросом.
+     *
+     * @param news Данные для создания новостей.
+     * @return Ответ с созданными новостями и статусом CREATED.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ResponseNewsDto>> createNewsBatch(@RequestBody List<RequestNewsDto> news) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(newsService.createAll(news));
+    }
+
+    /**
+     * Обновляет несколько новостей одним запросом. Идентификаторы берутся из данных новостей.
+     *
+     * @param news Данные для обновления новостей.
+     * @return Ответ с обновленными новостями и статусом OK.
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<ResponseNewsDto>> updateNewsBatch(@RequestBody List<RequestNewsDto> news) {
+        return ResponseEntity.ok(newsService.updateAll(news));
+    }
+
+    /**
+     * Удаляет несколько новостей по идентификаторам одним запросом.
+     *
+     * @param ids Идентификаторы новостей.
+     * @return Ответ без содержимого и статусом NO_CONTENT.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteNewsBatch(@RequestBody List<Long> ids) {
+        newsService.deleteAll(ids);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Удаляет новость по идентификатору.
      *
@@ -84,12 +128,14 @@ public class NewsController {
 
     /**
      * Получает список всех новостей с пагинацией.
+     * Запрос, сочетающий параметры withComments, after и view=summary, не соответствует ни одному
+     * обработчику и отклоняется со статусом BAD_REQUEST.
      *
      * @param page Номер страницы.
      * @param size Размер страницы.
      * @return Ответ со списком новостей и статусом OK.
      */
-    @GetMapping
+    @GetMapping(params = {"!withComments", "!after", "view!=summary"})
     public ResponseEntity<List<ResponseNewsDto>> getAllNews(@RequestParam(defaultValue = "0") int page,
                                                             @RequestParam(defaultValue = "10") int size) {
         List<ResponseNewsDto> newsList = (List<ResponseNewsDto>) newsService.findAll(page, size);
@@ -98,19 +144,76 @@ public class NewsController {
     }
 
     /**
-     * Получает новость по идентификатору с комментариями.
+     * Получает список новостей с пагинацией и первыми комментариями каждой новости.
      *
-     * @param id   Идентификатор новости.
-     * @param page Номер страницы комментариев.
-     * @param size Размер страницы комментариев.
-     * @return Ответ с новостью и комментариями и статусом OK.
-     */
-    @GetMapping("/{id}/comments")
-    public ResponseEntity<ResponseNewsDtoWithComments> getNewsByIdWithAllComments(@PathVariable Long id,
-                                                                                  @RequestParam(defaultValue = "0") int page,
-                                                                                  @RequestParam(defaultValue = "100") int size) {
-        ResponseNewsDtoWithComments newsWithComments = newsService.findNewsWithComments(id, page, size);
-        return ResponseEntity.ok(newsWithComments);
+     * @param page         Номер страницы.
+     * @param size         Размер страницы.
+     * @param withComments Количество комментариев каждой новости.
+     * @return Ответ со списком новостей с комментариями и статусом OK.
+     */
+    @GetMapping(params = {"withComments", "!after", "view!=summary"})
+    public ResponseEntity<List<ResponseNewsDtoWithComments>> getAllNewsWithComments(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam int withComments) {
+        return ResponseEntity.ok(newsService.findAllWithComments(page, size, withComments));
+    }
+
+    /**
+     * Получает новости ленты от новых к старым, следующие за курсором.
+     * Первая страница запрашивается с пустым курсором ({@code /news?after=&size=10}),
+     * следующие - с курсором next из предыдущего ответа.
+     *
+     * @param after Курсор предыдущей страницы.
+     * @param size  Размер страницы.
+     * @return Ответ со страницей новостей и курсором следующей страницы и статусом OK.
+     */
+    @GetMapping(params = {"after", "!withComments", "view!=summary"})
+    public ResponseEntity<CursorPage<ResponseNewsDto>> getNewsFeed(@RequestParam String after,
+                                                                   @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(newsService.findFeed(after, size));
+    }
+
+    /**
+     * Получает краткие новости (id, время, заголовок и начало текста) с пагинацией.
+     *
+     * @param page Номер страницы.
+     * @param size Размер страницы.
+     * @return Ответ со списком кратких новостей и статусом OK.
+     */
+    @GetMapping(params = {"view=summary", "!withComments", "!after"})
+    public ResponseEntity<List<NewsSummaryDto>> getNewsSummaries(@RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(newsService.findAllSummaries(page, size));
+    }
+
+    /**
+     * Получает краткие новости ленты от новых к старым, следующие за курсором.
+     *
+     * @param after Курсор предыдущей страницы.
+     * @param size  Размер страницы.
+     * @return Ответ со страницей кратких новостей и курсором следующей страницы и статусом OK.
+     */
+    @GetMapping(params = {"after", "view=summary", "!withComments"})
+    public ResponseEntity<CursorPage<NewsSummaryDto>> getNewsFeedSummaries(@RequestParam String after,
+                                                                           @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(newsService.findFeedSummaries(after, size));
+    }
+
+    /**
+     * Выгружает все новости в порядке id потоком, не загружая их в память целиком.
+     * Прерванную выгрузку можно продолжить, передав в after id последней полученной новости.
+     *
+     * @param after  Id, после которого начинается выгрузка.
+     * @param format Формат выгрузки: NDJSON или BINARY.
+     * @return Ответ с потоком новостей и статусом OK.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNews(@RequestParam(defaultValue = "0") long after,
+                                                            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .body(out -> newsExporter.export(after, format, out));
     }
 
     @GetMapping("/{newsId}/comments/{commentId}")
@@ -0,0 +1,45 @@
+package by.alex.newsappmicriservice.controller;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
+import by.alex.newsappmicriservice.service.impl.ReactiveNewsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Контроллер для получения новости с комментариями без блокировки потока запроса (профиль reactive).
+ * Метод возвращает {@link Mono}, поэтому поток Tomcat освобождается на время обращения к сервису комментариев,
+ * а ответ отправляется асинхронно после получения новости и комментариев.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/news")
+@RequiredArgsConstructor
+public class ReactiveNewsCommentsController {
+
+    /**
+     * Неблокирующий сервис новостей с комментариями.
+     */
+    private final ReactiveNewsService newsService;
+
+    /**
+     * Получает новость по идентификатору с комментариями.
+     *
+     * @param id   Идентификатор новости.
+     * @param page Номер страницы комментариев.
+     * @param size Размер страницы комментариев.
+     * @return Ответ с новостью и комментариями и статусом OK.
+     */
+    @GetMapping("/{id}/comments")
+    public Mono<ResponseEntity<ResponseNewsDtoWithComments>> getNewsByIdWithAllComments(@PathVariable Long id,
+                                                                                        @RequestParam(defaultValue = "0") int page,
+                                                                                        @RequestParam(defaultValue = "100") int size) {
+        return newsService.findNewsWithComments(id, page, size).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,16 @@
+package by.alex.newsappmicriservice.dto;
+
+import java.util.List;
+
+/**
+ * Класс, представляющий страницу ленты при постраничном выводе по курсору.
+ *
+ * @param items Элементы страницы.
+ * @param next  Курсор следующей страницы или null, если страница последняя.
+ * @param <T>   Тип элементов.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String next
+) {
+}
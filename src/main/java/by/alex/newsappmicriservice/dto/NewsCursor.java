@@ -0,0 +1,49 @@
+package by.alex.newsappmicriservice.dto;
+
+import by.bulbach.exceptionspringbootstarter.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в ленте новостей: время и id последней полученной новости.
+ * Передается клиенту в непрозрачном виде (Base64 без дополнения), чтобы формат можно было менять.
+ *
+ * @param time Время последней полученной новости.
+ * @param id   Идентификатор последней полученной новости.
+ */
+public record NewsCursor(
+        LocalDateTime time,
+        Long id
+) {
+
+    /**
+     * Кодирует курсор в строку для клиента.
+     *
+     * @return Закодированный курсор.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((time + "," + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор, полученный от клиента.
+     *
+     * @param cursor Закодированный курсор.
+     * @return Курсор.
+     * @throws InvalidRequestException если курсор поврежден.
+     */
+    public static NewsCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(',');
+            return new NewsCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Invalid news cursor " + cursor);
+        }
+    }
+}
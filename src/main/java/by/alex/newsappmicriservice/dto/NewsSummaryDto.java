@@ -0,0 +1,20 @@
+package by.alex.newsappmicriservice.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс, представляющий краткое DTO новости для лент и списков.
+ * Создается проекцией запроса, поэтому полный текст новости не загружается.
+ *
+ * @param id      Идентификатор новости.
+ * @param time    Время создания новости.
+ * @param title   Заголовок новости.
+ * @param snippet Начало текста новости.
+ */
+public record NewsSummaryDto(
+        Long id,
+        LocalDateTime time,
+        String title,
+        String snippet
+) {
+}
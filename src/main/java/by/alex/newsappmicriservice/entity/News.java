@@ -5,11 +5,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.search.engine.backend.types.Projectable;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 import java.time.LocalDateTime;
@@ -26,18 +29,20 @@ import java.time.LocalDateTime;
 public class News {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "news_seq")
+    @SequenceGenerator(name = "news_seq", sequenceName = "news_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
+    @GenericField(projectable = Projectable.YES)
     private LocalDateTime time;
 
     @Column(nullable = false)
-    @FullTextField(analyzer = "english")
+    @FullTextField(analyzer = "english", projectable = Projectable.YES)
     private String title;
 
     @Column(nullable = false, length = 1000)
-    @FullTextField(analyzer = "english")
+    @FullTextField(analyzer = "english", projectable = Projectable.YES)
     private String text;
 
 }
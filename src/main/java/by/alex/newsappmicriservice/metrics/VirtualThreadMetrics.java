@@ -0,0 +1,67 @@
+package by.alex.newsappmicriservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+
+/**
+ * Метрики виртуальных потоков по событиям JFR:
+ * <ul>
+ *     <li>jvm.threads.virtual.pinned - время, на которое виртуальный поток блокировался, не освобождая
+ *     поток-носитель (внутри synchronized или native метода), для блокировок не короче порога;</li>
+ *     <li>jvm.threads.virtual.submit.failed - виртуальные потоки, которые не удалось запустить или возобновить.</li>
+ * </ul>
+ * Время без закрепления оценивается сравнением с временем выполнения задач на виртуальных потоках
+ * (executor.execution исполнителя commentFetch, http.server.requests для запросов Tomcat).
+ */
+public class VirtualThreadMetrics implements MeterBinder, AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+
+    private final Duration pinnedThreshold;
+    private final RecordingStream recordingStream;
+
+    /**
+     * Конструктор для создания нового экземпляра VirtualThreadMetrics.
+     *
+     * @param pinnedThreshold Минимальная длительность закрепления, которая записывается JFR.
+     */
+    public VirtualThreadMetrics(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+        this.recordingStream = new RecordingStream();
+    }
+
+    /**
+     * Регистрирует метрики и запускает чтение событий JFR.
+     *
+     * @param registry Реестр метрик.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("The duration while the virtual thread was pinned without releasing its platform carrier thread")
+                .tag("threshold", pinnedThreshold.toString())
+                .register(registry);
+        Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("The number of events when starting or unparking a virtual thread failed")
+                .register(registry);
+        recordingStream.enable(PINNED_EVENT).withThreshold(pinnedThreshold);
+        recordingStream.enable(SUBMIT_FAILED_EVENT);
+        recordingStream.onEvent(PINNED_EVENT, event -> pinned.record(event.getDuration()));
+        recordingStream.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailed.increment());
+        recordingStream.startAsync();
+    }
+
+    /**
+     * Останавливает чтение событий JFR.
+     */
+    @Override
+    public void close() {
+        recordingStream.close();
+    }
+}
@@ -1,9 +1,21 @@
 package by.alex.newsappmicriservice.repository;
 
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.entity.News;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Интерфейс для работы с репозиторием новостей.
  * Расширяет {@link JpaRepository}, предоставляя методы для работы с новостями.
@@ -11,4 +23,93 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface NewsRepository extends JpaRepository<News,Long> {
 
+    /**
+     * Количество строк, которые драйвер получает из курсора за одно обращение к базе данных при выгрузке.
+     */
+    String EXPORT_FETCH_SIZE = "500";
+
+    /**
+     * Возвращает страницу новостей без подсчета общего количества.
+     * В отличие от {@link #findAll(Pageable)} не выполняет запрос COUNT.
+     *
+     * @param pageable Параметры страницы.
+     * @return Новости страницы и признак наличия следующей страницы.
+     */
+    Slice<News> findAllBy(Pageable pageable);
+
+    /**
+     * Возвращает первые новости ленты, от новых к старым.
+     * Использует индекс news_time_id_idx (time DESC, id DESC).
+     *
+     * @param pageable Количество новостей (номер страницы не используется).
+     * @return Новости ленты.
+     */
+    @Query("select n from news n order by n.time desc, n.id desc")
+    List<News> findFeed(Pageable pageable);
+
+    /**
+     * Возвращает новости ленты, следующие за новостью с заданными временем и id.
+     * Условие по паре (time, id) выполняется поиском по индексу news_time_id_idx,
+     * поэтому время выборки не зависит от глубины ленты.
+     *
+     * @param time     Время последней полученной новости.
+     * @param id       Идентификатор последней полученной новости.
+     * @param pageable Количество новостей (номер страницы не используется).
+     * @return Новости ленты.
+     */
+    @Query("select n from news n where (n.time, n.id) < (:time, :id) order by n.time desc, n.id desc")
+    List<News> findFeedAfter(@Param("time") LocalDateTime time, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Возвращает страницу кратких новостей без подсчета общего количества.
+     * Начало текста вырезается в базе данных, полный текст не передается.
+     *
+     * @param snippetLength Длина начала текста в символах.
+     * @param pageable      Параметры страницы.
+     * @return Краткие новости страницы и признак наличия следующей страницы.
+     */
+    @Query("select new by.alex.newsappmicriservice.dto.NewsSummaryDto(n.id, n.time, n.title, substring(n.text, 1, :length))"
+            + " from news n")
+    Slice<NewsSummaryDto> findSummaries(@Param("length") int snippetLength, Pageable pageable);
+
+    /**
+     * Возвращает первые краткие новости ленты, от новых к старым.
+     *
+     * @param snippetLength Длина начала текста в символах.
+     * @param pageable      Количество новостей (номер страницы не используется).
+     * @return Краткие новости ленты.
+     */
+    @Query("select new by.alex.newsappmicriservice.dto.NewsSummaryDto(n.id, n.time, n.title, substring(n.text, 1, :length))"
+            + " from news n order by n.time desc, n.id desc")
+    List<NewsSummaryDto> findFeedSummaries(@Param("length") int snippetLength, Pageable pageable);
+
+    /**
+     * Возвращает краткие новости ленты, следующие за новостью с заданными временем и id.
+     *
+     * @param snippetLength Длина начала текста в символах.
+     * @param time          Время последней полученной новости.
+     * @param id            Идентификатор последней полученной новости.
+     * @param pageable      Количество новостей (номер страницы не используется).
+     * @return Краткие новости ленты.
+     */
+    @Query("select new by.alex.newsappmicriservice.dto.NewsSummaryDto(n.id, n.time, n.title, substring(n.text, 1, :length))"
+            + " from news n where (n.time, n.id) < (:time, :id) order by n.time desc, n.id desc")
+    List<NewsSummaryDto> findFeedSummariesAfter(@Param("length") int snippetLength, @Param("time") LocalDateTime time,
+                                                @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Возвращает поток новостей с id больше заданного в порядке id.
+     * Строки читаются курсором JDBC порциями по {@link #EXPORT_FETCH_SIZE}, а не загружаются целиком.
+     * Должен вызываться в транзакции (для PostgreSQL курсор работает только при выключенном autocommit),
+     * поток необходимо закрыть.
+     *
+     * @param afterId Id, после которого начинается выборка.
+     * @return Поток новостей.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select n from news n where n.id > :afterId order by n.id")
+    Stream<News> streamAllAfter(@Param("afterId") long afterId);
 }
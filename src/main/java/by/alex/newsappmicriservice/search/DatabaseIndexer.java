@@ -26,8 +26,12 @@ public class DatabaseIndexer {
     @Transactional
     void indexData() throws InterruptedException {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
-        SearchSession searchSession = Search.session(entityManager);
-        MassIndexer indexer = searchSession.massIndexer();
-        indexer.startAndWait();
+        try {
+            SearchSession searchSession = Search.session(entityManager);
+            MassIndexer indexer = searchSession.massIndexer();
+            indexer.startAndWait();
+        } finally {
+            entityManager.close();
+        }
     }
 }
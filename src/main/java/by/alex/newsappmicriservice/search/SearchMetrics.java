@@ -0,0 +1,71 @@
+package by.alex.newsappmicriservice.search;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Метрики полнотекстового поиска новостей:
+ * <ul>
+ *     <li>news.search (result=success|failure) - полное время запроса с гистограммой;</li>
+ *     <li>news.search.engine - время выполнения запроса в индексе (SearchResult.took);</li>
+ *     <li>news.search.hits - количество найденных новостей (нижняя граница, если подсчет был прерван).</li>
+ * </ul>
+ */
+@Component
+public class SearchMetrics {
+
+    private final Timer success;
+    private final Timer failure;
+    private final Timer engine;
+    private final DistributionSummary hits;
+
+    /**
+     * Конструктор для создания нового экземпляра SearchMetrics и регистрации его метрик.
+     *
+     * @param registry Реестр метрик.
+     */
+    public SearchMetrics(MeterRegistry registry) {
+        this.success = searchTimer("success", registry);
+        this.failure = searchTimer("failure", registry);
+        this.engine = Timer.builder("news.search.engine")
+                .description("The time the search query took in the index")
+                .register(registry);
+        this.hits = DistributionSummary.builder("news.search.hits")
+                .description("The number of news matching the search query")
+                .register(registry);
+    }
+
+    /**
+     * Записывает успешный запрос.
+     *
+     * @param total    Полное время запроса.
+     * @param took     Время выполнения запроса в индексе.
+     * @param hitCount Количество найденных новостей.
+     */
+    public void recordSuccess(Duration total, Duration took, long hitCount) {
+        success.record(total);
+        engine.record(took);
+        hits.record(hitCount);
+    }
+
+    /**
+     * Записывает запрос, завершившийся исключением.
+     *
+     * @param total Время до исключения.
+     */
+    public void recordFailure(Duration total) {
+        failure.record(total);
+    }
+
+    private static Timer searchTimer(String result, MeterRegistry registry) {
+        return Timer.builder("news.search")
+                .tag("result", result)
+                .description("The time of full-text news search queries")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
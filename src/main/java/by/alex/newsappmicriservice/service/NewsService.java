@@ -1,6 +1,8 @@
 package by.alex.newsappmicriservice.service;
 
 import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.CursorPage;
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
 import by.bulbach.exceptionspringbootstarter.exception.InvalidRequestException;
 import by.bulbach.exceptionspringbootstarter.exception.NewsNotFoundException;
@@ -25,6 +27,38 @@ public interface NewsService<T, K> {
      */
     Collection<T> findAll(int page, int size);
 
+    /**
+     * Возвращает краткие новости (без полного текста) на заданной странице с заданным размером.
+     *
+     * @param page номер страницы
+     * @param size размер страницы
+     * @return список кратких новостей
+     */
+    List<NewsSummaryDto> findAllSummaries(int page, int size);
+
+    /**
+     * Возвращает новости ленты от новых к старым, следующие за курсором.
+     * В отличие от {@link #findAll(int, int)} время выборки не зависит от глубины ленты.
+     *
+     * @param after курсор, полученный с предыдущей страницей, или пустая строка для первой страницы
+     * @param size  размер страницы
+     * @return страница новостей с курсором следующей страницы
+     * @throws InvalidRequestException если курсор поврежден или размер страницы не положителен
+     *                                 или превышает допустимый
+     */
+    CursorPage<T> findFeed(String after, int size);
+
+    /**
+     * Возвращает краткие новости ленты (без полного текста) от новых к старым, следующие за курсором.
+     *
+     * @param after курсор, полученный с предыдущей страницей, или пустая строка для первой страницы
+     * @param size  размер страницы
+     * @return страница кратких новостей с курсором следующей страницы
+     * @throws InvalidRequestException если курсор поврежден или размер страницы не положителен
+     *                                 или превышает допустимый
+     */
+    CursorPage<NewsSummaryDto> findFeedSummaries(String after, int size);
+
     /**
      * Возвращает новость по идентификатору.
      *
@@ -52,6 +86,34 @@ public interface NewsService<T, K> {
      */
     T update(K item);
 
+    /**
+     * Создает несколько новостей в одной транзакции.
+     *
+     * @param items запросы на создание новостей
+     * @return созданные новости в порядке запросов
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки
+     */
+    List<T> createAll(List<K> items);
+
+    /**
+     * Обновляет несколько существующих новостей в одной транзакции.
+     *
+     * @param items запросы на обновление новостей
+     * @return обновленные новости в порядке запросов
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки
+     * @throws NewsNotFoundException   если какая-либо новость не найдена
+     */
+    List<T> updateAll(List<K> items);
+
+    /**
+     * Удаляет несколько новостей по идентификаторам в одной транзакции.
+     *
+     * @param ids идентификаторы новостей
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки
+     * @throws NewsNotFoundException   если какая-либо новость не найдена
+     */
+    void deleteAll(List<Long> ids);
+
     /**
      * Удаляет новость по идентификатору.
      *
@@ -72,6 +134,19 @@ public interface NewsService<T, K> {
     ResponseNewsDtoWithComments findNewsWithComments(Long id, int page, int size);
 
 
+    /**
+     * Возвращает новости на заданной странице с первыми комментариями каждой новости.
+     * Комментарии всех новостей страницы запрашиваются у сервиса комментариев вместе.
+     *
+     * @param page         номер страницы
+     * @param size         размер страницы
+     * @param commentCount количество комментариев каждой новости
+     * @return список новостей с комментариями
+     * @throws InvalidRequestException если размер страницы или количество комментариев не положительно
+     *                                 или превышает допустимое
+     */
+    List<ResponseNewsDtoWithComments> findAllWithComments(int page, int size, int commentCount);
+
     /**
      * Получает список всех новостей используя расширенный поиск с пагинацией.
      *
@@ -79,6 +154,8 @@ public interface NewsService<T, K> {
      * @param page   Номер страницы.
      * @param size   Размер страницы.
      * @return Список DTO новостей.
+     * @throws InvalidRequestException если номер страницы отрицателен, размер страницы не положителен
+     *                                 или смещение страницы не помещается в int
      */
     List<T> search(String search, int page, int size);
 
@@ -0,0 +1,35 @@
+package by.alex.newsappmicriservice.service.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Форматы выгрузки новостей.
+ */
+public enum ExportFormat {
+
+    /**
+     * Одна новость в формате JSON на строку (application/x-ndjson).
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON),
+
+    /**
+     * Последовательность кадров: длина (4 байта) и новость в формате
+     * {@link by.alex.newsappmicriservice.cache.serializer.ResponseNewsDtoSerializer}.
+     */
+    BINARY(MediaType.APPLICATION_OCTET_STREAM);
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Возвращает тип содержимого ответа.
+     *
+     * @return Тип содержимого.
+     */
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,101 @@
+package by.alex.newsappmicriservice.service.export;
+
+import by.alex.newsappmicriservice.cache.serializer.ResponseNewsDtoSerializer;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.entity.News;
+import by.alex.newsappmicriservice.mapper.NewsMapper;
+import by.alex.newsappmicriservice.repository.NewsRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка всех новостей в порядке id.
+ * Новости читаются курсором JDBC порциями по {@link NewsRepository#EXPORT_FETCH_SIZE} строк и сразу
+ * записываются в ответ, а прочитанные сущности отсоединяются от контекста персистентности,
+ * поэтому расход памяти не зависит от размера таблицы.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NewsExporter {
+
+    private final NewsRepository repository;
+
+    private final NewsMapper mapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    private final ResponseNewsDtoSerializer serializer = new ResponseNewsDtoSerializer();
+
+    /**
+     * Записывает новости с id больше заданного в поток.
+     * Выгрузку можно продолжить после обрыва, передав id последней полученной новости.
+     *
+     * @param afterId Id, после которого начинается выгрузка (0 - с начала).
+     * @param format  Формат выгрузки.
+     * @param out     Поток ответа.
+     * @return Количество выгруженных новостей.
+     * @throws IOException если запись в поток не удалась, например клиент закрыл соединение.
+     */
+    @Transactional(readOnly = true)
+    public long export(long afterId, ExportFormat format, OutputStream out) throws IOException {
+        long count;
+        try (Stream<News> news = repository.streamAllAfter(afterId)) {
+            count = switch (format) {
+                case NDJSON -> writeNdjson(news.iterator(), out);
+                case BINARY -> writeBinary(news.iterator(), out);
+            };
+        }
+        log.info("Exported {} news after id = {} as {}", count, afterId, format);
+        return count;
+    }
+
+    private long writeNdjson(Iterator<News> news, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (news.hasNext()) {
+                writer.writeValue(generator, toDto(news.next()));
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeBinary(Iterator<News> news, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        long count = 0;
+        while (news.hasNext()) {
+            byte[] bytes = serializer.serialize(toDto(news.next()));
+            data.writeInt(bytes.length);
+            data.write(bytes);
+            count++;
+        }
+        data.flush();
+        return count;
+    }
+
+    private ResponseNewsDto toDto(News news) {
+        ResponseNewsDto dto = mapper.toDto(news);
+        entityManager.detach(news);
+        return dto;
+    }
+}
@@ -6,13 +6,16 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс для работы с Feign клиентом для взаимодействия с сервисом комментариев.
  * Аннотация {@link FeignClient} указывает, что этот интерфейс будет использоваться для создания Feign клиента.
+ * Сервисы вызывают его через {@link ResilientCommentClient}.
  */
-@FeignClient(name = "news", url = "http://localhost:8082/comments")
+@FeignClient(name = "comments", url = "${comments.url}")
 public interface APIClient {
 
     /**
@@ -26,6 +29,17 @@ public interface APIClient {
     @GetMapping("/news/{newsId}")
     List<CommentDto> getCommentsByNewsId(@PathVariable("newsId") Long newsId, @RequestParam("size") int size, @RequestParam("page") int page);
 
+    /**
+     * Получает первые комментарии нескольких новостей одним запросом.
+     * Сервисы комментариев, которые не поддерживают этот запрос, отвечают 404 или 405.
+     *
+     * @param newsIds Идентификаторы новостей.
+     * @param size    Количество комментариев каждой новости.
+     * @return Списки комментариев по идентификаторам новостей.
+     */
+    @GetMapping("/news")
+    Map<Long, List<CommentDto>> getCommentsByNewsIds(@RequestParam("ids") Collection<Long> newsIds, @RequestParam("size") int size);
+
     @GetMapping("/news/{newsId}/comments/{commentId}")
     CommentDto getCommentByNewsIdAndCommentId(@PathVariable("newsId") Long newsId, @PathVariable("commentId") Long commentId);
 }
@@ -1,16 +1,25 @@
 package by.alex.newsappmicriservice.service.impl;
 
+import by.alex.newsappmicriservice.cache.AbstractCache;
 import by.alex.newsappmicriservice.cache.annotation.CustomCachableGet;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachableQuery;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchCreate;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchDelete;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchUpdate;
 import by.alex.newsappmicriservice.cache.annotation.CustomCachebleCreate;
 import by.alex.newsappmicriservice.cache.annotation.CustomCachebleDelete;
 import by.alex.newsappmicriservice.cache.annotation.CustomCachebleUpdate;
 import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.CursorPage;
+import by.alex.newsappmicriservice.dto.NewsCursor;
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.dto.RequestNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
 import by.alex.newsappmicriservice.entity.News;
 import by.alex.newsappmicriservice.mapper.NewsMapper;
 import by.alex.newsappmicriservice.repository.NewsRepository;
+import by.alex.newsappmicriservice.search.SearchMetrics;
 import by.alex.newsappmicriservice.service.NewsService;
 import by.bulbach.exceptionspringbootstarter.exception.InvalidRequestException;
 import by.bulbach.exceptionspringbootstarter.exception.NewsNotFoundException;
@@ -18,6 +27,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.hibernate.search.engine.search.query.SearchResult;
 import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
 import org.hibernate.search.mapper.orm.Search;
@@ -28,8 +38,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -42,13 +64,45 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNewsDto> {
 
+    /**
+     * Длина начала текста новости в кратких DTO.
+     */
+    private static final int SNIPPET_LENGTH = 200;
+
+    /**
+     * Максимальное количество новостей в одном пакетном запросе.
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Максимальный размер страницы ленты и страницы новостей с комментариями.
+     */
+    private static final int MAX_FEED_SIZE = 100;
+
+    /**
+     * Максимальное количество комментариев каждой новости на странице новостей с комментариями.
+     */
+    private static final int MAX_COMMENT_COUNT = 50;
+
     private final NewsRepository repository;
     private final EntityManagerFactory entityManagerFactory;
 
-    private final APIClient commentClient;
+    private final ResilientCommentClient commentClient;
 
     private final NewsMapper mapper;
 
+    private final AbstractCache<Long, ResponseNewsDto> newsCache;
+
+    private final ExecutorService commentFetchExecutor;
+
+    private final SearchMetrics searchMetrics;
+
+    @Value("${comments.timeout}")
+    private Duration commentTimeout;
+
+    @Value("${search.field.time}")
+    private String FIELD_TIME;
+
     @Value("${search.field.title}")
     private String FIELD_TITLE;
 
@@ -64,22 +118,105 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
 
     /**
      * Получает список всех новостей с пагинацией.
+     * Страница запрашивается как {@link org.springframework.data.domain.Slice}, поэтому запрос COUNT не выполняется.
      *
      * @param page Номер страницы.
      * @param size Размер страницы.
      * @return Список DTO новостей.
      */
-
+    @CustomCachableQuery(dependsOnContent = false)
     public List<ResponseNewsDto> findAll(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
 
-        return repository.findAll(pageable)
+        return repository.findAllBy(pageable)
                 .stream()
                 .map(mapper::toDto)
                 .collect(Collectors.toList());
 
     }
 
+    /**
+     * Получает краткие новости с пагинацией без полного текста.
+     *
+     * @param page Номер страницы.
+     * @param size Размер страницы.
+     * @return Список кратких DTO новостей.
+     */
+    @Override
+    public List<NewsSummaryDto> findAllSummaries(int page, int size) {
+        return repository.findSummaries(SNIPPET_LENGTH, PageRequest.of(page, size)).getContent();
+    }
+
+    /**
+     * Получает новости ленты от новых к старым, следующие за курсором.
+     *
+     * @param after Курсор предыдущей страницы или пустая строка для первой страницы.
+     * @param size  Размер страницы.
+     * @return Страница новостей с курсором следующей страницы.
+     * @throws InvalidRequestException если курсор поврежден или размер страницы не положителен или превышает допустимый.
+     */
+    @Override
+    public CursorPage<ResponseNewsDto> findFeed(String after, int size) {
+        return feedPage(after, size,
+                repository::findFeed,
+                (cursor, limit) -> repository.findFeedAfter(cursor.time(), cursor.id(), limit),
+                news -> new NewsCursor(news.getTime(), news.getId()),
+                mapper::toDto);
+    }
+
+    /**
+     * Получает краткие новости ленты от новых к старым, следующие за курсором, без полного текста.
+     *
+     * @param after Курсор предыдущей страницы или пустая строка для первой страницы.
+     * @param size  Размер страницы.
+     * @return Страница кратких новостей с курсором следующей страницы.
+     * @throws InvalidRequestException если курсор поврежден или размер страницы не положителен или превышает допустимый.
+     */
+    @Override
+    public CursorPage<NewsSummaryDto> findFeedSummaries(String after, int size) {
+        return feedPage(after, size,
+                limit -> repository.findFeedSummaries(SNIPPET_LENGTH, limit),
+                (cursor, limit) -> repository.findFeedSummariesAfter(SNIPPET_LENGTH, cursor.time(), cursor.id(), limit),
+                summary -> new NewsCursor(summary.time(), summary.id()),
+                Function.identity());
+    }
+
+    /**
+     * Получает страницу ленты по курсору.
+     * Запрашивается на одну новость больше размера страницы, чтобы узнать, есть ли следующая страница.
+     *
+     * @param after    Курсор предыдущей страницы или пустая строка для первой страницы.
+     * @param size     Размер страницы.
+     * @param first    Запрос первой страницы.
+     * @param next     Запрос страницы, следующей за курсором.
+     * @param position Позиция новости в ленте.
+     * @param toDto    Преобразование результата запроса в DTO.
+     * @param <E>      Тип результата запроса.
+     * @param <T>      Тип DTO.
+     * @return Страница ленты с курсором следующей страницы.
+     */
+    private <E, T> CursorPage<T> feedPage(String after, int size, Function<Pageable, List<E>> first,
+                                          BiFunction<NewsCursor, Pageable, List<E>> next,
+                                          Function<E, NewsCursor> position, Function<E, T> toDto) {
+        if (size <= 0) {
+            throw new InvalidRequestException("Page size must be positive");
+        }
+        if (size > MAX_FEED_SIZE) {
+            throw new InvalidRequestException("Page size can`t be more than " + MAX_FEED_SIZE);
+        }
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<E> rows = after == null || after.isEmpty()
+                ? first.apply(limit)
+                : next.apply(NewsCursor.decode(after), limit);
+
+        List<T> items = rows.stream()
+                .limit(size)
+                .map(toDto)
+                .toList();
+        String nextCursor = rows.size() > size ? position.apply(rows.get(size - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
     /**
      * Получает новость по идентификатору.
      *
@@ -88,7 +225,7 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      * @throws NewsNotFoundException если новость не найдена.
      */
     @Override
-    @CustomCachableGet
+    @CustomCachableGet(cacheName = "newsCache", key = "#id", missingCacheName = "missingNewsCache")
     public ResponseNewsDto findById(Long id) {
         News news = repository.findById(id)
                 .orElseThrow(() -> new NewsNotFoundException("News with id= " + id + "not found"));
@@ -103,7 +240,8 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      * @throws InvalidRequestException если запрос на создание новости null.
      */
     @Override
-    @CustomCachebleCreate
+    @CustomCachebleCreate(cacheName = "newsCache", key = "#result.id()", missingCacheName = "missingNewsCache",
+            queryCacheName = "newsQueryCache")
     public ResponseNewsDto create(RequestNewsDto news) {
         if (news == null) {
             throw new InvalidRequestException("If you want to create News can`t be null");
@@ -124,7 +262,7 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      * @throws NewsNotFoundException   если новость не найдена.
      */
     @Override
-    @CustomCachebleUpdate
+    @CustomCachebleUpdate(cacheName = "newsCache", key = "#result.id()", queryCacheName = "newsQueryCache")
     public ResponseNewsDto update(RequestNewsDto news) {
 
         if (news == null) {
@@ -138,6 +276,100 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
         return mapper.toDto(repository.save(newsById));
     }
 
+    /**
+     * Создает несколько новостей в одной транзакции.
+     * Идентификаторы выделяются из последовательности блоками, поэтому вставки отправляются JDBC-пачками,
+     * а индексация поиска выполняется один раз при фиксации транзакции.
+     *
+     * @param news DTO запросов на создание новостей.
+     * @return DTO созданных новостей в порядке запросов.
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки.
+     */
+    @Override
+    @Transactional
+    @CustomCachebleBatchCreate(cacheName = "newsCache", key = "#result.id()", missingCacheName = "missingNewsCache",
+            queryCacheName = "newsQueryCache")
+    public List<ResponseNewsDto> createAll(List<RequestNewsDto> news) {
+        checkBatch(news);
+
+        List<News> created = news.stream()
+                .map(mapper::toModel)
+                .toList();
+
+        return repository.saveAll(created).stream()
+                .map(mapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Обновляет несколько новостей в одной транзакции.
+     * Новости загружаются одним запросом, изменения отправляются JDBC-пачками при фиксации транзакции.
+     *
+     * @param news DTO запросов на обновление новостей.
+     * @return DTO обновленных новостей в порядке запросов.
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки.
+     * @throws NewsNotFoundException   если какая-либо новость не найдена.
+     */
+    @Override
+    @Transactional
+    @CustomCachebleBatchUpdate(cacheName = "newsCache", key = "#result.id()", queryCacheName = "newsQueryCache")
+    public List<ResponseNewsDto> updateAll(List<RequestNewsDto> news) {
+        checkBatch(news);
+
+        Map<Long, News> byId = repository.findAllById(news.stream().map(RequestNewsDto::id).toList()).stream()
+                .collect(Collectors.toMap(News::getId, Function.identity()));
+        List<News> updated = news.stream()
+                .map(item -> {
+                    News newsById = byId.get(item.id());
+                    if (newsById == null) {
+                        throw new NewsNotFoundException("news with id= " + item.id() + " not found");
+                    }
+                    mapper.updateModel(item, newsById);
+                    return newsById;
+                })
+                .toList();
+
+        return repository.saveAll(updated).stream()
+                .map(mapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Удаляет несколько новостей по идентификаторам в одной транзакции.
+     * Новости удаляются как сущности, а не запросом DELETE, чтобы индекс поиска получил события удаления.
+     *
+     * @param ids Идентификаторы новостей.
+     * @throws InvalidRequestException если список пуст или превышает допустимый размер пачки.
+     * @throws NewsNotFoundException   если какая-либо новость не найдена.
+     */
+    @Override
+    @Transactional
+    @CustomCachebleBatchDelete(cacheName = "newsCache", keys = "#ids", queryCacheName = "newsQueryCache")
+    public void deleteAll(List<Long> ids) {
+        checkBatch(ids);
+
+        List<News> found = repository.findAllById(ids);
+        if (found.size() != ids.stream().distinct().count()) {
+            Set<Long> foundIds = found.stream().map(News::getId).collect(Collectors.toSet());
+            Long missing = ids.stream()
+                    .filter(id -> !foundIds.contains(id))
+                    .findFirst()
+                    .orElse(null);
+            throw new NewsNotFoundException("news with id= " + missing + " not found");
+        }
+
+        repository.deleteAll(found);
+    }
+
+    private static void checkBatch(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("Batch can`t be empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Batch can`t contain more than " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
     /**
      * Удаляет новость по идентификатору.
      *
@@ -146,7 +378,7 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      * @throws NewsNotFoundException если новость не найдена.
      */
     @Override
-    @CustomCachebleDelete
+    @CustomCachebleDelete(cacheName = "newsCache", key = "#id", queryCacheName = "newsQueryCache")
     public void delete(Long id) {
         if (id == 0) {
             throw new RuntimeException("Id can`t be null ");
@@ -159,6 +391,10 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
 
     /**
      * Получает новость по идентификатору с комментариями.
+     * Комментарии запрашиваются в отдельном потоке одновременно с получением новости из кэша новостей
+     * или базы данных, поэтому время ответа определяется более долгим из двух обращений, а не их суммой.
+     * Если новость не найдена, запрос комментариев отменяется. Если комментарии не получены за
+     * comments.timeout, запрос отменяется, и новость возвращается без комментариев (commentDto равен null).
      *
      * @param id   Идентификатор новости.
      * @param page Номер страницы комментариев.
@@ -168,21 +404,94 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      */
     public ResponseNewsDtoWithComments findNewsWithComments(Long id, int page, int size) {
 
-        ResponseNewsDtoWithComments withComments = ResponseNewsDtoWithComments.builder().build();
-
-        News newsById = repository.findById(id)
-                .orElseThrow(() -> new NewsNotFoundException("news with id= " + id + " not found"));
-
-        withComments.setId(newsById.getId());
-        withComments.setTime(newsById.getTime());
-        withComments.setText(newsById.getText());
-        withComments.setTitle(newsById.getTitle());
+        long deadline = System.nanoTime() + commentTimeout.toNanos();
+        Future<List<CommentDto>> comments = commentFetchExecutor.submit(
+                () -> commentClient.getCommentsByNewsId(id, size, page));
+
+        ResponseNewsDto news;
+        try {
+            news = newsCache.getOrLoad(id, key -> mapper.toDto(repository.findById(key)
+                    .orElseThrow(() -> new NewsNotFoundException("news with id= " + key + " not found"))));
+        } catch (RuntimeException e) {
+            comments.cancel(true);
+            throw e;
+        }
 
-        List<CommentDto> commentsByNewsId = commentClient.getCommentsByNewsId(id, size, page);
+        return ResponseNewsDtoWithComments.builder()
+                .id(news.id())
+                .time(news.time())
+                .title(news.title())
+                .text(news.text())
+                .commentDto(awaitComments(id, comments, deadline))
+                .build();
+    }
 
-        withComments.setCommentDto(commentsByNewsId);
+    /**
+     * Ожидает комментарии до истечения бюджета времени.
+     *
+     * @param id       Идентификатор новости.
+     * @param comments Запрос комментариев.
+     * @param deadline Момент истечения бюджета по {@link System#nanoTime()}.
+     * @return Комментарии или null, если они не получены вовремя.
+     */
+    private List<CommentDto> awaitComments(Long id, Future<List<CommentDto>> comments, long deadline) {
+        try {
+            return comments.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            comments.cancel(true);
+            log.warn("Comments of news with id = {} not received in {}", id, commentTimeout);
+            return null;
+        } catch (InterruptedException e) {
+            comments.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for comments of news with id= " + id, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Comments of news with id= " + id + " not received", e.getCause());
+        }
+    }
 
-        return withComments;
+    /**
+     * Получает новости страницы с первыми комментариями каждой новости.
+     * Комментарии запрашиваются для всех новостей страницы одним обращением к сервису комментариев
+     * вместо отдельного обращения на каждую новость.
+     *
+     * @param page         Номер страницы.
+     * @param size         Размер страницы.
+     * @param commentCount Количество комментариев каждой новости.
+     * @return Список DTO новостей с комментариями.
+     * @throws InvalidRequestException если размер страницы или количество комментариев не положительно
+     *                                 или превышает допустимое.
+     */
+    @Override
+    public List<ResponseNewsDtoWithComments> findAllWithComments(int page, int size, int commentCount) {
+        if (size <= 0) {
+            throw new InvalidRequestException("Page size must be positive");
+        }
+        if (size > MAX_FEED_SIZE) {
+            throw new InvalidRequestException("Page size can`t be more than " + MAX_FEED_SIZE);
+        }
+        if (commentCount <= 0) {
+            throw new InvalidRequestException("Comment count must be positive");
+        }
+        if (commentCount > MAX_COMMENT_COUNT) {
+            throw new InvalidRequestException("Comment count can`t be more than " + MAX_COMMENT_COUNT);
+        }
+        List<News> news = repository.findAllBy(PageRequest.of(page, size)).getContent();
+        Map<Long, List<CommentDto>> comments = commentClient.getCommentsByNewsIds(
+                news.stream().map(News::getId).toList(), commentCount);
+
+        return news.stream()
+                .map(item -> ResponseNewsDtoWithComments.builder()
+                        .id(item.getId())
+                        .time(item.getTime())
+                        .title(item.getTitle())
+                        .text(item.getText())
+                        .commentDto(comments.getOrDefault(item.getId(), List.of()))
+                        .build())
+                .toList();
     }
 
     /**
@@ -193,6 +502,7 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
      * @return CommentDto новости.
      * @throws NewsNotFoundException если новость не найдена.
      */
+    @CustomCachableGet(cacheName = "commentCache", key = "#newsId + ':' + #commentId")
     public CommentDto findNewsWithCommentById(Long newsId, Long commentId) {
 
         return commentClient.getCommentByNewsIdAndCommentId(newsId, commentId);
@@ -200,34 +510,65 @@ public class NewsServiceImpl implements NewsService<ResponseNewsDto, RequestNews
 
     /**
      * Метод для получения всех новостей используя расширенный поиск с пагинацией.
+     * Новости строятся из полей, сохраненных в индексе, поэтому сущности не загружаются из базы данных.
+     * Сессия поиска открывается только для чтения и закрывается после запроса.
      *
      * @param search Фрагмент строки для поиска.
      * @param page   Номер страницы.
      * @param size   Размер страницы.
      * @return Возвращает коллекцию ResponseNewsDto.
+     * @throws InvalidRequestException если номер страницы отрицателен, размер страницы не положителен
+     *                                 или смещение страницы не помещается в int.
      */
     @Override
+    @CustomCachableQuery
     public List<ResponseNewsDto> search(String search, int page, int size) {
-
+        if (page < 0) {
+            throw new InvalidRequestException("Page number can`t be negative");
+        }
+        if (size <= 0) {
+            throw new InvalidRequestException("Page size must be positive");
+        }
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new InvalidRequestException("Page " + page + " of size " + size + " is out of range");
+        }
+        long start = System.nanoTime();
         EntityManager entityManager = entityManagerFactory.createEntityManager();
-        SearchSession searchSession = Search.session(entityManager);
-
-        SearchResult<News> searchResult = searchSession.search(News.class)
-                .where(news -> news
-                        .bool()
-                        .with(b -> {
-                            b.must(news.matchAll());
-                            b.must(news.match()
-                                    .field(FIELD_TITLE)
-                                    .boost(TITLE_BOOST_FACTOR)
-                                    .field(FIELD_TEXT)
-                                    .boost(TEXT_BOOST_FACTOR)
-                                    .matching(search));
-                        }))
-                .sort(SearchSortFactory::score)
-                .fetch(page, size);
-
-        return searchResult.hits().stream().map(mapper::toDto).collect(Collectors.toList());
+        try {
+            entityManager.unwrap(Session.class).setDefaultReadOnly(true);
+            SearchSession searchSession = Search.session(entityManager);
+
+            SearchResult<ResponseNewsDto> searchResult = searchSession.search(News.class)
+                    .select(news -> news.composite()
+                            .from(news.id(Long.class).toProjection(),
+                                    news.field(FIELD_TIME, LocalDateTime.class).toProjection(),
+                                    news.field(FIELD_TITLE, String.class).toProjection(),
+                                    news.field(FIELD_TEXT, String.class).toProjection())
+                            .asList(fields -> new ResponseNewsDto((Long) fields.get(0),
+                                    (LocalDateTime) fields.get(1), (String) fields.get(2), (String) fields.get(3))))
+                    .where(news -> news
+                            .bool()
+                            .with(b -> {
+                                b.must(news.matchAll());
+                                b.must(news.match()
+                                        .field(FIELD_TITLE)
+                                        .boost(TITLE_BOOST_FACTOR)
+                                        .field(FIELD_TEXT)
+                                        .boost(TEXT_BOOST_FACTOR)
+                                        .matching(search));
+                            }))
+                    .sort(SearchSortFactory::score)
+                    .fetch(page * size, size);
+
+            searchMetrics.recordSuccess(Duration.ofNanos(System.nanoTime() - start), searchResult.took(),
+                    searchResult.total().hitCountLowerBound());
+            return searchResult.hits();
+        } catch (RuntimeException e) {
+            searchMetrics.recordFailure(Duration.ofNanos(System.nanoTime() - start));
+            throw e;
+        } finally {
+            entityManager.close();
+        }
     }
 
 }
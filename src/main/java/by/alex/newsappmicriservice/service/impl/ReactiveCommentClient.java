@@ -0,0 +1,109 @@
+package by.alex.newsappmicriservice.service.impl;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.dto.CommentDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Неблокирующий клиент сервиса комментариев на {@link WebClient} (профиль reactive).
+ * Использует те же bulkhead, предохранитель, кэш страниц и последние полученные страницы,
+ * что и {@link ResilientCommentClient}, поэтому оба клиента видят одно состояние сервиса комментариев.
+ * Ожидание ответа не занимает поток: он освобождается до получения комментариев.
+ * <p>
+ * Страница из кэша страниц возвращается без обращения к сервису. Фоновое обновление страниц выполняет
+ * только блокирующий клиент, здесь истекшая страница запрашивается заново.
+ */
+@Slf4j
+public class ReactiveCommentClient {
+
+    private static final ParameterizedTypeReference<List<CommentDto>> COMMENTS = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+
+    private final Bulkhead bulkhead;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final AbstractCache<String, List<CommentDto>> pageCache;
+
+    private final AbstractCache<String, List<CommentDto>> staleComments;
+
+    /**
+     * Создает клиент.
+     *
+     * @param webClient      WebClient с базовым адресом сервиса комментариев.
+     * @param bulkhead       Ограничение одновременных запросов.
+     * @param circuitBreaker Предохранитель обращений к сервису.
+     * @param pageCache      Кэш страниц комментариев с ключом {@code <id новости>:<страница>:<размер>}.
+     * @param staleComments  Последние успешно полученные страницы комментариев.
+     */
+    public ReactiveCommentClient(WebClient webClient, Bulkhead bulkhead, CircuitBreaker circuitBreaker,
+                                 AbstractCache<String, List<CommentDto>> pageCache,
+                                 AbstractCache<String, List<CommentDto>> staleComments) {
+        this.webClient = webClient;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.pageCache = pageCache;
+        this.staleComments = staleComments;
+    }
+
+    /**
+     * Получает страницу комментариев к новости из кэша страниц или сервиса комментариев.
+     * Если сервис комментариев недоступен, возвращает последнюю полученную страницу либо пустой список.
+     * Ошибки 4xx передаются подписчику.
+     *
+     * @param newsId Идентификатор новости.
+     * @param size   Размер страницы комментариев.
+     * @param page   Номер страницы комментариев.
+     * @return Список комментариев к новости.
+     */
+    public Mono<List<CommentDto>> getCommentsByNewsId(Long newsId, int size, int page) {
+        String key = newsId + ":" + page + ":" + size;
+        return Mono.defer(() -> {
+            List<CommentDto> cached = pageCache.get(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return webClient.get()
+                    .uri(uri -> uri.path("/news/{newsId}")
+                            .queryParam("size", size)
+                            .queryParam("page", page)
+                            .build(newsId))
+                    .retrieve()
+                    .bodyToMono(COMMENTS)
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .doOnNext(comments -> {
+                        pageCache.put(key, comments);
+                        staleComments.put(key, comments);
+                    })
+                    .onErrorResume(e -> !isClientError(e), e -> {
+                        List<CommentDto> stale = staleComments.get(key);
+                        log.warn("Comments of news with id = {} not received ({}), returning {}", newsId,
+                                e.getMessage(), stale == null ? "no comments" : "stale comments");
+                        return Mono.just(stale == null ? List.of() : stale);
+                    });
+        });
+    }
+
+    /**
+     * Проверяет, является ли ошибка ответом 4xx, который не означает отказ сервиса комментариев.
+     *
+     * @param e Ошибка запроса.
+     * @return true для ответов 4xx.
+     */
+    public static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+}
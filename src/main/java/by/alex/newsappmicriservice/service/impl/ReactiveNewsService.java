@@ -0,0 +1,70 @@
+package by.alex.newsappmicriservice.service.impl;
+
+import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.RequestNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
+import by.alex.newsappmicriservice.service.NewsService;
+import by.bulbach.exceptionspringbootstarter.exception.NewsNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Неблокирующее получение новости с комментариями (профиль reactive).
+ * Комментарии запрашиваются через {@link ReactiveCommentClient} без занятия потока, а новость загружается
+ * через {@link NewsService#findById} с кэшем новостей на пуле для блокирующих вызовов, потому что JPA блокирует поток.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveNewsService {
+
+    private final NewsService<ResponseNewsDto, RequestNewsDto> newsService;
+
+    private final ReactiveCommentClient commentClient;
+
+    @Value("${comments.timeout}")
+    private Duration commentTimeout;
+
+    /**
+     * Получает новость с комментариями. Новость и комментарии запрашиваются одновременно.
+     * Если новость не найдена, запрос комментариев отменяется. Если комментарии не получены за
+     * comments.timeout, их запрос отменяется, и новость возвращается без комментариев (commentDto равен null).
+     *
+     * @param id   Идентификатор новости.
+     * @param page Номер страницы комментариев.
+     * @param size Размер страницы комментариев.
+     * @return DTO новости с комментариями.
+     * @throws NewsNotFoundException если новость не найдена (как сигнал ошибки).
+     */
+    public Mono<ResponseNewsDtoWithComments> findNewsWithComments(Long id, int page, int size) {
+        Mono<ResponseNewsDto> news = Mono.fromCallable(() -> newsService.findById(id))
+                .subscribeOn(Schedulers.boundedElastic());
+        Mono<Optional<List<CommentDto>>> comments = commentClient.getCommentsByNewsId(id, size, page)
+                .timeout(commentTimeout)
+                .map(Optional::of)
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Comments of news with id = {} not received in {}", id, commentTimeout);
+                    return Mono.just(Optional.empty());
+                });
+
+        return Mono.zip(news, comments, (item, list) -> ResponseNewsDtoWithComments.builder()
+                .id(item.id())
+                .time(item.time())
+                .title(item.title())
+                .text(item.text())
+                .commentDto(list.orElse(null))
+                .build());
+    }
+}
@@ -0,0 +1,266 @@
+package by.alex.newsappmicriservice.service.impl;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.dto.CommentDto;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Обращения к сервису комментариев через {@link APIClient}, ограниченные {@link Bulkhead} и {@link CircuitBreaker}.
+ * Bulkhead ограничивает число одновременных запросов, чтобы медленный сервис комментариев не занимал все потоки
+ * Tomcat, а CircuitBreaker после серии ошибок и тайм-аутов на время перестает обращаться к сервису.
+ * <p>
+ * Если комментарии новости получить не удалось, возвращается последний успешно полученный список той же страницы,
+ * а если его нет - пустой список. Ошибки 4xx не считаются отказами сервиса и передаются вызывающему.
+ * <p>
+ * Полученные страницы комментариев хранятся в кэше страниц с коротким временем жизни, поэтому повторные
+ * запросы комментариев популярной новости не доходят до сервиса комментариев. Ответы при недоступности
+ * сервиса в кэш страниц не попадают.
+ * <p>
+ * Комментарии нескольких новостей запрашиваются одним запросом {@link APIClient#getCommentsByNewsIds}.
+ * Если сервис комментариев его не поддерживает, клиент запрашивает комментарии каждой новости параллельно
+ * и повторяет пакетный запрос не раньше, чем через заданный интервал: ответ 404 мог прийти во время
+ * перезапуска сервиса. Ошибка 4xx при запросе комментариев одной новости не прерывает загрузку остальных,
+ * для такой новости возвращаются последние полученные комментарии либо пустой список.
+ */
+@Slf4j
+public class ResilientCommentClient {
+
+    private final APIClient apiClient;
+
+    private final Bulkhead bulkhead;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final AbstractCache<String, List<CommentDto>> pageCache;
+
+    private final AbstractCache<String, List<CommentDto>> staleComments;
+
+    private final ExecutorService fanOutExecutor;
+
+    private final long batchRetryNanos;
+
+    private final LongSupplier ticker;
+
+    /**
+     * Момент (в наносекундах по ticker), после которого пакетный запрос пробуется снова.
+     */
+    private volatile long batchRetryAt;
+
+    private volatile boolean batchUnsupported;
+
+    /**
+     * Создает клиент.
+     *
+     * @param apiClient          Feign клиент сервиса комментариев.
+     * @param bulkhead           Ограничение одновременных запросов.
+     * @param circuitBreaker     Предохранитель обращений к сервису.
+     * @param pageCache          Кэш страниц комментариев с ключом {@code <id новости>:<страница>:<размер>}.
+     * @param staleComments      Последние успешно полученные страницы комментариев.
+     * @param fanOutExecutor     Исполнитель параллельных запросов, если пакетный запрос не поддерживается.
+     * @param batchRetryInterval Время, в течение которого не повторяется неподдержанный пакетный запрос.
+     */
+    public ResilientCommentClient(APIClient apiClient, Bulkhead bulkhead, CircuitBreaker circuitBreaker,
+                                  AbstractCache<String, List<CommentDto>> pageCache,
+                                  AbstractCache<String, List<CommentDto>> staleComments,
+                                  ExecutorService fanOutExecutor, Duration batchRetryInterval) {
+        this(apiClient, bulkhead, circuitBreaker, pageCache, staleComments, fanOutExecutor, batchRetryInterval,
+                System::nanoTime);
+    }
+
+    /**
+     * Создает клиент с заданным источником времени.
+     *
+     * @param apiClient          Feign клиент сервиса комментариев.
+     * @param bulkhead           Ограничение одновременных запросов.
+     * @param circuitBreaker     Предохранитель обращений к сервису.
+     * @param pageCache          Кэш страниц комментариев с ключом {@code <id новости>:<страница>:<размер>}.
+     * @param staleComments      Последние успешно полученные страницы комментариев.
+     * @param fanOutExecutor     Исполнитель параллельных запросов, если пакетный запрос не поддерживается.
+     * @param batchRetryInterval Время, в течение которого не повторяется неподдержанный пакетный запрос.
+     * @param ticker             Источник времени в наносекундах.
+     */
+    public ResilientCommentClient(APIClient apiClient, Bulkhead bulkhead, CircuitBreaker circuitBreaker,
+                                  AbstractCache<String, List<CommentDto>> pageCache,
+                                  AbstractCache<String, List<CommentDto>> staleComments,
+                                  ExecutorService fanOutExecutor, Duration batchRetryInterval, LongSupplier ticker) {
+        this.apiClient = apiClient;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.pageCache = pageCache;
+        this.staleComments = staleComments;
+        this.fanOutExecutor = fanOutExecutor;
+        this.batchRetryNanos = batchRetryInterval.toNanos();
+        this.ticker = ticker;
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Comment service circuit breaker: {}", event.getStateTransition()));
+    }
+
+    /**
+     * Получает страницу комментариев к новости из кэша страниц или сервиса комментариев.
+     * Если сервис комментариев недоступен, возвращает последнюю полученную страницу либо пустой список.
+     *
+     * @param newsId Идентификатор новости.
+     * @param size   Размер страницы комментариев.
+     * @param page   Номер страницы комментариев.
+     * @return Список комментариев к новости.
+     */
+    public List<CommentDto> getCommentsByNewsId(Long newsId, int size, int page) {
+        String key = pageKey(newsId, size, page);
+        try {
+            return pageCache.getOrLoad(key, k -> {
+                List<CommentDto> comments = call(() -> apiClient.getCommentsByNewsId(newsId, size, page));
+                staleComments.put(k, comments);
+                return comments;
+            });
+        } catch (FeignException.FeignClientException e) {
+            throw e;
+        } catch (CallNotPermittedException | BulkheadFullException | FeignException e) {
+            List<CommentDto> stale = staleComments.get(key);
+            log.warn("Comments of news with id = {} not received ({}), returning {}", newsId, e.getMessage(),
+                    stale == null ? "no comments" : "stale comments");
+            return stale == null ? List.of() : stale;
+        }
+    }
+
+    /**
+     * Получает первые комментарии нескольких новостей. Комментарии, которых нет в кэше страниц,
+     * запрашиваются одним запросом или, если сервис комментариев его не поддерживает,
+     * параллельными запросами по каждой новости.
+     * Для новостей, комментарии которых получить не удалось, возвращаются последние полученные комментарии
+     * либо пустой список.
+     *
+     * @param newsIds Идентификаторы новостей.
+     * @param size    Количество комментариев каждой новости.
+     * @return Списки комментариев по идентификаторам новостей в порядке newsIds.
+     */
+    public Map<Long, List<CommentDto>> getCommentsByNewsIds(Collection<Long> newsIds, int size) {
+        Map<Long, List<CommentDto>> result = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long newsId : newsIds) {
+            List<CommentDto> cached = pageCache.get(pageKey(newsId, size, 0));
+            result.put(newsId, cached);
+            if (cached == null) {
+                missing.add(newsId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(load(missing, size));
+        }
+        return result;
+    }
+
+    private Map<Long, List<CommentDto>> load(List<Long> newsIds, int size) {
+        if (batchSupported()) {
+            try {
+                Map<Long, List<CommentDto>> received = call(() -> apiClient.getCommentsByNewsIds(newsIds, size));
+                Map<String, List<CommentDto>> pages = new LinkedHashMap<>();
+                Map<Long, List<CommentDto>> result = new LinkedHashMap<>();
+                for (Long newsId : newsIds) {
+                    List<CommentDto> comments = received.getOrDefault(newsId, List.of());
+                    pages.put(pageKey(newsId, size, 0), comments);
+                    result.put(newsId, comments);
+                }
+                pageCache.putAll(pages);
+                staleComments.putAll(pages);
+                return result;
+            } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+                log.info("Comment service does not support batch lookup, falling back to a request per news for {}",
+                        Duration.ofNanos(batchRetryNanos));
+                batchRetryAt = ticker.getAsLong() + batchRetryNanos;
+                batchUnsupported = true;
+            } catch (CallNotPermittedException | BulkheadFullException | FeignException e) {
+                log.warn("Comments of {} news not received ({}), returning stale comments", newsIds.size(),
+                        e.getMessage());
+                return newsIds.stream().collect(Collectors.toMap(Function.identity(), newsId -> {
+                    List<CommentDto> stale = staleComments.get(pageKey(newsId, size, 0));
+                    return stale == null ? List.of() : stale;
+                }, (first, second) -> first, LinkedHashMap::new));
+            }
+        }
+        return fanOut(newsIds, size);
+    }
+
+    private Map<Long, List<CommentDto>> fanOut(Collection<Long> newsIds, int size) {
+        Map<Long, CompletableFuture<List<CommentDto>>> requests = new LinkedHashMap<>();
+        for (Long newsId : newsIds) {
+            requests.computeIfAbsent(newsId, id -> CompletableFuture.supplyAsync(
+                    () -> firstComments(id, size), fanOutExecutor));
+        }
+        Map<Long, List<CommentDto>> result = new LinkedHashMap<>();
+        requests.forEach((newsId, request) -> result.put(newsId, join(request)));
+        return result;
+    }
+
+    /**
+     * Получает первые комментарии новости. Ошибка 4xx по одной новости не прерывает загрузку страницы новостей:
+     * для нее возвращаются последние полученные комментарии либо пустой список.
+     */
+    private List<CommentDto> firstComments(Long newsId, int size) {
+        try {
+            return getCommentsByNewsId(newsId, size, 0);
+        } catch (FeignException.FeignClientException e) {
+            List<CommentDto> stale = staleComments.get(pageKey(newsId, size, 0));
+            log.warn("Comments of news with id = {} rejected ({}), returning {}", newsId, e.getMessage(),
+                    stale == null ? "no comments" : "stale comments");
+            return stale == null ? List.of() : stale;
+        }
+    }
+
+    private boolean batchSupported() {
+        if (batchUnsupported && ticker.getAsLong() - batchRetryAt >= 0) {
+            batchUnsupported = false;
+        }
+        return !batchUnsupported;
+    }
+
+    private static <T> T join(CompletableFuture<T> request) {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Получает комментарий новости по идентификатору.
+     *
+     * @param newsId    Идентификатор новости.
+     * @param commentId Идентификатор комментария.
+     * @return Комментарий.
+     * @throws CallNotPermittedException если предохранитель разомкнут.
+     * @throws BulkheadFullException     если превышено число одновременных запросов.
+     */
+    public CommentDto getCommentByNewsIdAndCommentId(Long newsId, Long commentId) {
+        return call(() -> apiClient.getCommentByNewsIdAndCommentId(newsId, commentId));
+    }
+
+    private static String pageKey(Long newsId, int size, int page) {
+        return newsId + ":" + page + ":" + size;
+    }
+
+    private <T> T call(Supplier<T> request) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
+    }
+}
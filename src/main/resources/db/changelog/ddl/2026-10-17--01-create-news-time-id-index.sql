@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS news_time_id_idx ON news (time DESC, id DESC);
@@ -0,0 +1,4 @@
+-- Hibernate выделяет id блоками по 50 и считает значение последовательности верхней границей блока,
+-- поэтому следующее значение сдвигается так, чтобы первый блок начинался после существующих id.
+ALTER SEQUENCE news_id_seq INCREMENT BY 50;
+SELECT setval('news_id_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM news), false);
@@ -0,0 +1,71 @@
+package by.alex.newsappmicriservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final NegativeCache<Long> negativeCache = new NegativeCache<>(2, Duration.ofSeconds(30), ticker::get);
+
+    @Test
+    void markedIdShouldBeMissingUntilTtlExpires() {
+        // given
+        negativeCache.markMissing(404L);
+
+        // when
+        boolean missingBeforeTtl = negativeCache.isMissing(404L);
+        ticker.addAndGet(Duration.ofSeconds(31).toNanos());
+        boolean missingAfterTtl = negativeCache.isMissing(404L);
+
+        // then
+        assertThat(missingBeforeTtl).isTrue();
+        assertThat(missingAfterTtl).isFalse();
+        assertThat(negativeCache.hitCount()).isEqualTo(1L);
+        assertThat(negativeCache.missCount()).isEqualTo(1L);
+        assertThat(negativeCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void missingEntryShouldKeepSourceMessage() {
+        // given
+        negativeCache.markMissing(404L, "News with id= 404 not found");
+
+        // when
+        NegativeCache.Missing missing = negativeCache.getMissing(404L);
+
+        // then
+        assertThat(missing.message()).isEqualTo("News with id= 404 not found");
+        assertThat(negativeCache.getMissing(405L)).isNull();
+    }
+
+    @Test
+    void invalidateShouldForgetMissingId() {
+        // given
+        negativeCache.markMissing(21L);
+
+        // when
+        negativeCache.invalidate(21L);
+
+        // then
+        assertThat(negativeCache.isMissing(21L)).isFalse();
+    }
+
+    @Test
+    void negativeCacheShouldBeBounded() {
+        // when
+        negativeCache.markMissing(1L);
+        negativeCache.markMissing(2L);
+        negativeCache.markMissing(3L);
+
+        // then
+        assertThat(negativeCache.size()).isEqualTo(2);
+        assertThat(negativeCache.isMissing(1L)).isFalse();
+        assertThat(negativeCache.isMissing(3L)).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package by.alex.newsappmicriservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final QueryCache queryCache = new QueryCache(10, Duration.ofSeconds(30), ticker::get);
+
+    private final QueryCache.Key frontPage = QueryCache.Key.of("findAll", 0, 10);
+
+    private final QueryCache.Key search = QueryCache.Key.of("search", "java", 0, 10);
+
+    @Test
+    void cachedIdsShouldBeReturnedUntilTtlExpires() {
+        // given
+        queryCache.put(frontPage, List.of(1L, 2L, 3L), queryCache.generation());
+
+        // when
+        List<?> beforeTtl = queryCache.get(QueryCache.Key.of("findAll", 0, 10), false);
+        ticker.addAndGet(Duration.ofSeconds(30).toNanos());
+        List<?> afterTtl = queryCache.get(frontPage, false);
+
+        // then
+        assertThat(beforeTtl).isEqualTo(List.of(1L, 2L, 3L));
+        assertThat(afterTtl).isNull();
+        assertThat(queryCache.hitCount()).isEqualTo(1L);
+        assertThat(queryCache.missCount()).isEqualTo(1L);
+        assertThat(queryCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void contentInvalidationShouldKeepContentIndependentQueries() {
+        // given
+        queryCache.put(frontPage, List.of(1L, 2L), queryCache.generation());
+        queryCache.put(search, List.of(2L), queryCache.generation());
+
+        // when
+        queryCache.invalidateContent();
+
+        // then
+        assertThat(queryCache.get(frontPage, false)).isEqualTo(List.of(1L, 2L));
+        assertThat(queryCache.get(search, true)).isNull();
+    }
+
+    @Test
+    void structureInvalidationShouldDropAllQueries() {
+        // given
+        queryCache.put(frontPage, List.of(1L, 2L), queryCache.generation());
+
+        // when
+        queryCache.invalidateAll();
+
+        // then
+        assertThat(queryCache.get(frontPage, false)).isNull();
+    }
+
+    @Test
+    void resultOfQueryRacingWithWriteShouldNotBeServed() {
+        // given
+        QueryCache.Generation beforeQuery = queryCache.generation();
+        queryCache.invalidateAll();
+
+        // when
+        queryCache.put(frontPage, List.of(1L, 2L), beforeQuery);
+
+        // then
+        assertThat(queryCache.get(frontPage, false)).isNull();
+    }
+}
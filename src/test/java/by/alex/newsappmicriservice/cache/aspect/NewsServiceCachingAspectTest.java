@@ -0,0 +1,189 @@
+package by.alex.newsappmicriservice.cache.aspect;
+
+import by.alex.newsappmicriservice.cache.NegativeCache;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachableGet;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleBatchDelete;
+import by.alex.newsappmicriservice.cache.annotation.CustomCachebleDelete;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NewsServiceCachingAspectTest {
+
+    private final ConcurrentLRUCache<Long, ResponseNewsDto> newsCache = new ConcurrentLRUCache<>(10);
+
+    private final NewsServiceCachingAspect aspect = new NewsServiceCachingAspect(
+            Map.of("newsCache", newsCache), Map.of("missingCache", new NegativeCache<Long>(10, Duration.ofSeconds(30))),
+            Map.of());
+
+    @Test
+    void missingKeyShouldBeAnsweredWithMethodExceptionTypeAndMessage() throws Throwable {
+        // given
+        ProceedingJoinPoint find = joinPoint("findComment", Long.class, 5L);
+        when(find.proceed()).thenThrow(new NoSuchElementException("Comment with id= 5 not found"));
+        CustomCachableGet get = annotation("findComment", Long.class, CustomCachableGet.class);
+        assertThatThrownBy(() -> aspect.cacheGet(find, get)).isInstanceOf(NoSuchElementException.class);
+
+        // when, then
+        assertThatThrownBy(() -> aspect.cacheGet(find, get))
+                .isExactlyInstanceOf(NoSuchElementException.class)
+                .hasMessage("Comment with id= 5 not found");
+        verify(find, times(1)).proceed();
+    }
+
+    @Test
+    void otherExceptionsShouldNotBeCachedAsMissing() throws Throwable {
+        // given
+        ProceedingJoinPoint find = joinPoint("findComment", Long.class, 5L);
+        when(find.proceed()).thenThrow(new IllegalStateException("Service unavailable"));
+        CustomCachableGet get = annotation("findComment", Long.class, CustomCachableGet.class);
+        assertThatThrownBy(() -> aspect.cacheGet(find, get)).isInstanceOf(IllegalStateException.class);
+
+        // when, then
+        assertThatThrownBy(() -> aspect.cacheGet(find, get)).isInstanceOf(IllegalStateException.class);
+        verify(find, times(2)).proceed();
+    }
+
+    @Test
+    void readWhileDeleteIsInFlightShouldNotCacheDeletedNews() throws Throwable {
+        // given
+        ResponseNewsDto news = news(1L);
+        newsCache.put(1L, news);
+        ProceedingJoinPoint find = joinPoint("findById", Long.class, 1L);
+        when(find.proceed()).thenReturn(news);
+        ProceedingJoinPoint delete = joinPoint("delete", Long.class, 1L);
+        when(delete.proceed()).thenAnswer(invocation -> CompletableFuture
+                .supplyAsync(() -> aspect.cacheGet(find, annotation("findById", Long.class, CustomCachableGet.class)))
+                .join());
+
+        // when
+        aspect.cacheDelete(delete, annotation("delete", Long.class, CustomCachebleDelete.class));
+
+        // then
+        verify(find, times(1)).proceed();
+        assertThat(newsCache.get(1L)).isNull();
+    }
+
+    @Test
+    void readWhileBatchDeleteIsInFlightShouldNotCacheDeletedNews() throws Throwable {
+        // given
+        ResponseNewsDto news = news(2L);
+        newsCache.put(1L, news(1L));
+        newsCache.put(2L, news);
+        ProceedingJoinPoint find = joinPoint("findById", Long.class, 2L);
+        when(find.proceed()).thenReturn(news);
+        ProceedingJoinPoint delete = joinPoint("deleteAll", List.class, List.of(1L, 2L));
+        when(delete.proceed()).thenAnswer(invocation -> CompletableFuture
+                .supplyAsync(() -> aspect.cacheGet(find, annotation("findById", Long.class, CustomCachableGet.class)))
+                .join());
+
+        // when
+        aspect.cacheBatchDelete(delete, annotation("deleteAll", List.class, CustomCachebleBatchDelete.class));
+
+        // then
+        verify(find, times(1)).proceed();
+        assertThat(newsCache.get(1L)).isNull();
+        assertThat(newsCache.get(2L)).isNull();
+    }
+
+    @Test
+    void failedDeleteShouldStillDropCachedValue() throws Throwable {
+        // given
+        newsCache.put(1L, news(1L));
+        ProceedingJoinPoint delete = joinPoint("delete", Long.class, 1L);
+        when(delete.proceed()).thenThrow(new IllegalStateException("Rolled back"));
+
+        // when, then
+        assertThatThrownBy(() -> aspect.cacheDelete(delete,
+                annotation("delete", Long.class, CustomCachebleDelete.class)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(newsCache.get(1L)).isNull();
+    }
+
+    @Test
+    void proxiedMethodShouldBeCached() {
+        // given
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.addAspect(aspect);
+        SampleService service = factory.getProxy();
+
+        // when
+        ResponseNewsDto first = service.findById(1L);
+        ResponseNewsDto second = service.findById(1L);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(newsCache.get(1L)).isSameAs(first);
+    }
+
+    private static ProceedingJoinPoint joinPoint(String methodName, Class<?> parameterType, Object argument)
+            throws NoSuchMethodException {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Sample.class.getDeclaredMethod(methodName, parameterType));
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{argument});
+        return joinPoint;
+    }
+
+    private static <A extends Annotation> A annotation(String methodName, Class<?> parameterType, Class<A> type) {
+        try {
+            Method method = Sample.class.getDeclaredMethod(methodName, parameterType);
+            return method.getAnnotation(type);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ResponseNewsDto news(Long id) {
+        return new ResponseNewsDto(id, LocalDateTime.of(2024, 2, 1, 12, 0), "News " + id, "This is news " + id);
+    }
+
+    private static class Sample {
+
+        @CustomCachableGet
+        ResponseNewsDto findById(Long id) {
+            return null;
+        }
+
+        @CustomCachableGet(missingCacheName = "missingCache", missingException = NoSuchElementException.class)
+        ResponseNewsDto findComment(Long id) {
+            return null;
+        }
+
+        @CustomCachebleDelete
+        void delete(Long id) {
+        }
+
+        @CustomCachebleBatchDelete
+        void deleteAll(List<Long> ids) {
+        }
+    }
+
+    static class SampleService {
+
+        @CustomCachableGet
+        public ResponseNewsDto findById(Long id) {
+            return news(id);
+        }
+    }
+}
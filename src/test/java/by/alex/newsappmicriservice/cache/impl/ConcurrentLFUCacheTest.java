@@ -0,0 +1,163 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentLFUCacheTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void putShouldEvictLeastFrequentlyUsedEntry() {
+        // given
+        ConcurrentLFUCache<Long, String> cache = new ConcurrentLFUCache<>(2);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        // when
+        cache.put(3L, "News 3");
+
+        // then
+        assertThat(cache.containsKey(1L)).isTrue();
+        assertThat(cache.containsKey(2L)).isFalse();
+        assertThat(cache.containsKey(3L)).isTrue();
+    }
+
+    @Test
+    void evictShouldRemoveOldestEntryAmongEqualFrequencies() {
+        // given
+        ConcurrentLFUCache<Long, String> cache = new ConcurrentLFUCache<>(3);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+        cache.put(3L, "News 3");
+
+        // when
+        cache.evict();
+        cache.delete(3L);
+
+        // then
+        assertThat(cache.getAllValues()).containsExactly("News 2");
+    }
+
+    @Test
+    void withoutAgingOldHotEntryShouldStayInCache() {
+        // given
+        ConcurrentLFUCache<Long, String> cache = new ConcurrentLFUCache<>(2, 0);
+
+        // when
+        fillWithOldAndRecentHotEntries(cache);
+
+        // then
+        assertThat(cache.containsKey(1L)).isTrue();
+        assertThat(cache.containsKey(2L)).isFalse();
+    }
+
+    @Test
+    void agingShouldLetRecentlyHotEntryOutliveOldHotEntry() {
+        // given
+        ConcurrentLFUCache<Long, String> cache = new ConcurrentLFUCache<>(2, 6);
+
+        // when
+        fillWithOldAndRecentHotEntries(cache);
+
+        // then
+        assertThat(cache.containsKey(1L)).isFalse();
+        assertThat(cache.containsKey(2L)).isTrue();
+        assertThat(cache.containsKey(3L)).isTrue();
+    }
+
+    @Test
+    void putShouldEvictLeastFrequentlyUsedEntriesUntilWeightFitsBudget() {
+        // given
+        ConcurrentLFUCache<Long, String> cache = new ConcurrentLFUCache<>(20, (key, value) -> value.length(), 0);
+        cache.put(1L, "Brief 1");
+        cache.put(2L, "Brief 2");
+        cache.get(1L);
+        cache.evict();
+        cache.put(2L, "Brief 2");
+
+        // when
+        cache.put(3L, "Long article");
+
+        // then
+        assertThat(cache.containsKey(1L)).isTrue();
+        assertThat(cache.containsKey(2L)).isFalse();
+        assertThat(cache.containsKey(3L)).isTrue();
+        assertThat(cache.weightedSize()).isEqualTo(19L);
+        assertThat(cache.evictedWeight()).isEqualTo(14L);
+    }
+
+    @Test
+    void concurrentMixedLoadShouldKeepSizeWithinCapacity() throws Exception {
+        // given
+        int capacity = 128;
+        int keyRange = 2_048;
+        ConcurrentLFUCache<Long, Long> cache = new ConcurrentLFUCache<>(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger corruptedReads = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    long key = random.nextLong(keyRange);
+                    int operation = random.nextInt(10);
+                    if (operation < 6) {
+                        Long value = cache.get(key);
+                        if (value != null && value != key * 10) {
+                            corruptedReads.incrementAndGet();
+                        }
+                    } else if (operation < 9) {
+                        cache.put(key, key * 10);
+                    } else {
+                        cache.delete(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(corruptedReads.get()).isZero();
+        assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+        assertThat(cache.getAllValues()).hasSize(cache.size());
+    }
+
+    /**
+     * Новость 1 была популярна давно, новость 2 - популярна сейчас, новость 3 вытесняет одну из них.
+     */
+    private void fillWithOldAndRecentHotEntries(ConcurrentLFUCache<Long, String> cache) {
+        cache.put(1L, "Old hot news");
+        for (int i = 0; i < 6; i++) {
+            cache.get(1L);
+        }
+        cache.put(2L, "Recent hot news");
+        for (int i = 0; i < 3; i++) {
+            cache.get(2L);
+        }
+        cache.put(3L, "New news");
+    }
+}
@@ -0,0 +1,289 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentLRUCacheTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void putShouldEvictLeastRecentlyUsedEntry() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(2);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+        cache.get(1L);
+
+        // when
+        cache.put(3L, "News 3");
+
+        // then
+        assertThat(cache.containsKey(1L)).isTrue();
+        assertThat(cache.containsKey(2L)).isFalse();
+        assertThat(cache.containsKey(3L)).isTrue();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void putShouldReplaceValueOfExistingKey() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(2);
+        cache.put(1L, "News 1");
+
+        // when
+        cache.put(1L, "Updated News 1");
+
+        // then
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteAndEvictShouldRemoveEntries() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(3);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+        cache.put(3L, "News 3");
+
+        // when
+        cache.delete(2L);
+        cache.evict();
+
+        // then
+        assertThat(cache.getAllValues()).containsExactly("News 3");
+    }
+
+    @Test
+    void putShouldEvictLeastRecentlyUsedEntriesUntilWeightFitsBudget() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(20, (key, value) -> value.length());
+        cache.put(1L, "Brief 1");
+        cache.put(2L, "Brief 2");
+        cache.get(1L);
+
+        // when
+        cache.put(3L, "Long article");
+
+        // then
+        assertThat(cache.containsKey(1L)).isTrue();
+        assertThat(cache.containsKey(2L)).isFalse();
+        assertThat(cache.containsKey(3L)).isTrue();
+        assertThat(cache.weightedSize()).isEqualTo(19L);
+        assertThat(cache.evictedWeight()).isEqualTo(7L);
+    }
+
+    @Test
+    void updateShouldReweighEntryAndEntryHeavierThanBudgetShouldNotBeCached() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(20, (key, value) -> value.length());
+        cache.put(1L, "Brief 1");
+        cache.put(2L, "Brief 2");
+
+        // when
+        cache.put(1L, "Brief");
+        cache.put(3L, "Article longer than the whole budget");
+
+        // then
+        assertThat(cache.weightedSize()).isEqualTo(12L);
+        assertThat(cache.containsKey(3L)).isFalse();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void loadFinishingAfterPutShouldNotOverwriteNewerValue() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(10);
+
+        // when
+        String loaded = cache.getOrLoad(1L, key -> {
+            cache.put(key, "Updated news 1");
+            return "News 1";
+        });
+
+        // then
+        assertThat(loaded).isEqualTo("News 1");
+        assertThat(cache.get(1L)).isEqualTo("Updated news 1");
+    }
+
+    @Test
+    void loadFinishingAfterDeleteShouldNotRestoreEntry() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(10);
+
+        // when
+        cache.getOrLoad(1L, key -> {
+            cache.delete(key);
+            return "News 1";
+        });
+
+        // then
+        assertThat(cache.containsKey(1L)).isFalse();
+        assertThat(cache.getOrLoad(1L, key -> "News 1 reloaded")).isEqualTo("News 1 reloaded");
+    }
+
+    @Test
+    void getOrLoadShouldCallLoaderOnceForConcurrentMisses() throws Exception {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return cache.getOrLoad(1L, key -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "News " + key;
+                });
+            }));
+        }
+        start.countDown();
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).hasSize(THREADS);
+        results.forEach(result -> assertThat(result).isEqualTo("News 1"));
+        assertThat(cache.get(1L)).isEqualTo("News 1");
+    }
+
+    @Test
+    void getOrLoadShouldNotCacheFailedLoad() {
+        // given
+        ConcurrentLRUCache<Long, String> cache = new ConcurrentLRUCache<>(10);
+
+        // when, then
+        assertThatThrownBy(() -> cache.getOrLoad(1L, key -> {
+            throw new IllegalStateException("News not found");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.containsKey(1L)).isFalse();
+        assertThat(cache.getOrLoad(1L, key -> "News 1")).isEqualTo("News 1");
+    }
+
+    @Test
+    void concurrentPutsWithinCapacityShouldNotLoseEntries() throws Exception {
+        // given
+        int keysPerThread = 2_000;
+        ConcurrentLRUCache<Long, Long> cache = new ConcurrentLRUCache<>(THREADS * keysPerThread);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            long offset = (long) t * keysPerThread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long key = offset; key < offset + keysPerThread; key++) {
+                    cache.put(key, key * 10);
+                    cache.get(ThreadLocalRandom.current().nextLong(THREADS * keysPerThread));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(cache.size()).isEqualTo(THREADS * keysPerThread);
+        for (long key = 0; key < THREADS * keysPerThread; key++) {
+            assertThat(cache.get(key)).isEqualTo(key * 10);
+        }
+    }
+
+    @Test
+    void concurrentMixedLoadShouldKeepSizeWithinCapacity() throws Exception {
+        // given
+        int capacity = 128;
+        int keyRange = 2_048;
+        ConcurrentLRUCache<Long, Long> cache = new ConcurrentLRUCache<>(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger maxObservedSize = new AtomicInteger();
+        AtomicInteger corruptedReads = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        Future<?> sampler = executor.submit(() -> {
+            start.await();
+            while (running.get()) {
+                maxObservedSize.accumulateAndGet(cache.size(), Math::max);
+            }
+            return null;
+        });
+
+        // when
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    long key = random.nextLong(keyRange);
+                    int operation = random.nextInt(10);
+                    if (operation < 6) {
+                        Long value = cache.get(key);
+                        if (value != null && value != key * 10) {
+                            corruptedReads.incrementAndGet();
+                        }
+                    } else if (operation < 9) {
+                        cache.put(key, key * 10);
+                    } else {
+                        cache.delete(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        sampler.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertThat(corruptedReads.get()).isZero();
+        assertThat(maxObservedSize.get()).isLessThanOrEqualTo(capacity + THREADS);
+        assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+        assertThat(cache.getAllValues()).hasSize(cache.size());
+        for (long key = 0; key < keyRange; key++) {
+            Long value = cache.get(key);
+            assertThat(value == null || value == key * 10).isTrue();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
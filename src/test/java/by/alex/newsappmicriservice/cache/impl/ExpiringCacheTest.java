@@ -0,0 +1,183 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Test
+    void entryShouldExpireAfterWrite() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, null);
+        cache.put(1L, "News 1");
+
+        // when
+        advance(Duration.ofMinutes(4));
+        String beforeExpiry = cache.get(1L);
+        advance(Duration.ofMinutes(1));
+
+        // then
+        assertThat(beforeExpiry).isEqualTo("News 1");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.containsKey(1L)).isFalse();
+    }
+
+    @Test
+    void entryShouldExpireAfterAccess() {
+        // given
+        ExpiringCache<Long, String> cache = cache(null, Duration.ofMinutes(2), null);
+        cache.put(1L, "News 1");
+
+        // when
+        advance(Duration.ofMinutes(1));
+        cache.get(1L);
+        advance(Duration.ofMinutes(1));
+        String afterAccess = cache.get(1L);
+        advance(Duration.ofMinutes(2));
+
+        // then
+        assertThat(afterAccess).isEqualTo("News 1");
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void putWithTtlShouldOverrideDefaultExpiry() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, null);
+
+        // when
+        cache.put(1L, "Breaking news", Duration.ofSeconds(10));
+        advance(Duration.ofSeconds(10));
+
+        // then
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void getOrLoadShouldReturnOldValueWhileRefreshingInBackground() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, Duration.ofMinutes(4));
+        cache.getOrLoad(1L, key -> "News 1");
+        advance(Duration.ofMinutes(4));
+
+        // when
+        String duringRefresh = cache.getOrLoad(1L, key -> "Updated News 1");
+        cache.getOrLoad(1L, key -> "Updated News 1");
+        int scheduledRefreshes = refreshes.size();
+        refreshes.forEach(Runnable::run);
+
+        // then
+        assertThat(duringRefresh).isEqualTo("News 1");
+        assertThat(scheduledRefreshes).isEqualTo(1);
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+        advance(Duration.ofMinutes(4));
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+    }
+
+    @Test
+    void failedRefreshShouldKeepOldValueUntilExpiry() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, Duration.ofMinutes(4));
+        cache.put(1L, "News 1");
+        advance(Duration.ofMinutes(4));
+
+        // when
+        cache.getOrLoad(1L, key -> {
+            throw new IllegalStateException("Database is down");
+        });
+        refreshes.forEach(Runnable::run);
+
+        // then
+        assertThat(cache.get(1L)).isEqualTo("News 1");
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.getOrLoad(1L, key -> "Reloaded News 1")).isEqualTo("Reloaded News 1");
+    }
+
+    @Test
+    void refreshFinishingAfterDeleteShouldNotRestoreEntry() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, Duration.ofMinutes(4));
+        cache.put(1L, "News 1");
+        advance(Duration.ofMinutes(4));
+        cache.getOrLoad(1L, key -> "Reloaded News 1");
+
+        // when
+        cache.delete(1L);
+        refreshes.forEach(Runnable::run);
+
+        // then
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void refreshReadBeforeUpdateShouldNotOverwriteNewerValue() {
+        // given
+        ExpiringCache<Long, String> cache = cache(Duration.ofMinutes(5), null, Duration.ofMinutes(4));
+        cache.put(1L, "News 1");
+        advance(Duration.ofMinutes(4));
+        cache.getOrLoad(1L, key -> {
+            String read = "News 1 read before update";
+            cache.put(key, "Updated News 1");
+            return read;
+        });
+
+        // when
+        refreshes.forEach(Runnable::run);
+
+        // then
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+        advance(Duration.ofMinutes(4));
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+    }
+
+    @Test
+    void removalOfExpiredEntryShouldKeepConcurrentlyWrittenEntry() {
+        // given
+        AtomicReference<Runnable> beforeRead = new AtomicReference<>();
+        ConcurrentLRUCache<Long, ExpiringCache.Entry<String>> entries = new ConcurrentLRUCache<>(10) {
+            @Override
+            public ExpiringCache.Entry<String> get(Long key) {
+                ExpiringCache.Entry<String> entry = super.get(key);
+                Runnable hook = beforeRead.getAndSet(null);
+                if (hook != null) {
+                    hook.run();
+                }
+                return entry;
+            }
+        };
+        ExpiringCache<Long, String> cache = new ExpiringCache<>(entries, Duration.ofMinutes(5), null, null,
+                refreshes::add, ticker::get);
+        cache.put(1L, "News 1");
+        advance(Duration.ofMinutes(5));
+        beforeRead.set(() -> cache.put(1L, "Updated News 1"));
+
+        // when
+        String expired = cache.get(1L);
+
+        // then
+        assertThat(expired).isNull();
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+        assertThat(cache.expirationCount()).isZero();
+    }
+
+    private ExpiringCache<Long, String> cache(Duration expireAfterWrite, Duration expireAfterAccess,
+                                              Duration refreshAfterWrite) {
+        return new ExpiringCache<>(new ConcurrentLRUCache<>(10), expireAfterWrite, expireAfterAccess,
+                refreshAfterWrite, refreshes::add, ticker::get);
+    }
+
+    private void advance(Duration duration) {
+        ticker.addAndGet(duration.toNanos());
+    }
+}
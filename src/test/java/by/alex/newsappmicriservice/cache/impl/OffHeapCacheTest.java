@@ -0,0 +1,142 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapCacheTest {
+
+    private static final ValueSerializer<String> STRINGS = new ValueSerializer<>() {
+        @Override
+        public byte[] serialize(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    @Test
+    void putShouldStoreAndReplaceValues() {
+        // given
+        OffHeapCache<Long, String> cache = new OffHeapCache<>(1024, 1, STRINGS);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+
+        // when
+        cache.put(1L, "Updated News 1");
+
+        // then
+        assertThat(cache.get(1L)).isEqualTo("Updated News 1");
+        assertThat(cache.get(2L)).isEqualTo("News 2");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.usedBytes()).isEqualTo(20L);
+    }
+
+    @Test
+    void putShouldOverwriteOldestEntriesWhenCapacityInBytesIsExceeded() {
+        // given
+        OffHeapCache<Long, String> cache = new OffHeapCache<>(30, 1, STRINGS);
+        cache.put(1L, "News 0001");
+        cache.put(2L, "News 0002");
+        cache.put(3L, "News 0003");
+
+        // when
+        cache.put(4L, "News 0004");
+
+        // then
+        assertThat(cache.containsKey(1L)).isFalse();
+        assertThat(cache.getAllValues()).containsExactlyInAnyOrder("News 0002", "News 0003", "News 0004");
+        assertThat(cache.usedBytes()).isLessThanOrEqualTo(cache.capacityBytes());
+    }
+
+    @Test
+    void valueLargerThanSegmentShouldNotBeCached() {
+        // given
+        OffHeapCache<Long, String> cache = new OffHeapCache<>(8, 1, STRINGS);
+        cache.put(1L, "News");
+
+        // when
+        cache.put(1L, "Very long news text");
+
+        // then
+        assertThat(cache.containsKey(1L)).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+    }
+
+    @Test
+    void deleteAndEvictShouldRemoveEntries() {
+        // given
+        OffHeapCache<Long, String> cache = new OffHeapCache<>(1024, 4, STRINGS);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+        cache.put(3L, "News 3");
+
+        // when
+        cache.delete(2L);
+        cache.evict();
+
+        // then
+        assertThat(cache.getAllValues()).containsExactly("News 3");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentLoadShouldNeverReturnForeignOrCorruptedValues() throws Exception {
+        // given
+        int threads = 8;
+        int keyRange = 512;
+        OffHeapCache<Long, String> cache = new OffHeapCache<>(4096, 2, STRINGS);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger corruptedReads = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    long key = random.nextLong(keyRange);
+                    int operation = random.nextInt(10);
+                    if (operation < 6) {
+                        String value = cache.get(key);
+                        if (value != null && !value.startsWith("News " + key + ":")) {
+                            corruptedReads.incrementAndGet();
+                        }
+                    } else if (operation < 9) {
+                        cache.put(key, "News " + key + ":" + "x".repeat(random.nextInt(32)));
+                    } else {
+                        cache.delete(key);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(corruptedReads.get()).isZero();
+        assertThat(cache.usedBytes()).isLessThanOrEqualTo(cache.capacityBytes());
+        assertThat(cache.getAllValues()).hasSize(cache.size());
+    }
+}
@@ -0,0 +1,75 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TinyLFUCacheTest {
+
+    @Test
+    void scanOfNewIdsShouldNotEvictFrequentlyRequestedNews() {
+        // given
+        TinyLFUCache<Long, String> cache = new TinyLFUCache<>(100);
+        for (long id = 1; id <= 50; id++) {
+            cache.put(id, "Hot news " + id);
+            for (int i = 0; i < 5; i++) {
+                cache.get(id);
+            }
+        }
+
+        // when
+        for (long id = 1_000; id < 2_000; id++) {
+            if (cache.get(id) == null) {
+                cache.put(id, "Crawled news " + id);
+            }
+        }
+
+        // then
+        for (long id = 1; id <= 50; id++) {
+            assertThat(cache.containsKey(id)).isTrue();
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void concurrentMixedLoadShouldKeepSizeWithinCapacity() throws Exception {
+        // given
+        int capacity = 200;
+        TinyLFUCache<Long, Long> cache = new TinyLFUCache<>(capacity);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    long key = random.nextLong(4_096);
+                    if (random.nextInt(10) < 7) {
+                        cache.get(key);
+                    } else if (random.nextBoolean()) {
+                        cache.put(key, key);
+                    } else {
+                        cache.delete(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+        assertThat(cache.getAllValues()).hasSize(cache.size());
+    }
+}
@@ -0,0 +1,167 @@
+package by.alex.newsappmicriservice.cache.impl;
+
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import by.alex.newsappmicriservice.cache.tier.InMemoryInvalidationHub;
+import by.alex.newsappmicriservice.cache.tier.InMemorySharedCacheTier;
+import by.alex.newsappmicriservice.cache.tier.SharedCacheTier;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheTest {
+
+    private static final ValueSerializer<String> SERIALIZER = new ValueSerializer<>() {
+        @Override
+        public byte[] serialize(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private final SharedCacheTier shared = new InMemorySharedCacheTier();
+
+    private final InMemoryInvalidationHub hub = new InMemoryInvalidationHub();
+
+    @Test
+    void localMissShouldBeServedFromSharedTier() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+        AtomicInteger loads = new AtomicInteger();
+        first.getOrLoad(1L, key -> "News " + loads.incrementAndGet());
+
+        // when
+        String value = second.getOrLoad(1L, key -> "News " + loads.incrementAndGet());
+
+        // then
+        assertThat(value).isEqualTo("News 1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.local().containsKey(1L)).isTrue();
+    }
+
+    @Test
+    void putShouldInvalidatePeers() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+        first.put(1L, "News 1");
+        second.get(1L);
+
+        // when
+        first.put(1L, "Updated news 1");
+
+        // then
+        assertThat(second.local().containsKey(1L)).isFalse();
+        assertThat(second.get(1L)).isEqualTo("Updated news 1");
+    }
+
+    @Test
+    void deleteShouldRemoveFromAllTiersAndPeers() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+        first.put(1L, "News 1");
+        second.get(1L);
+
+        // when
+        first.delete(1L);
+
+        // then
+        assertThat(first.containsKey(1L)).isFalse();
+        assertThat(second.get(1L)).isNull();
+    }
+
+    @Test
+    void putAllShouldFillSharedTierAndInvalidatePeers() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+        first.put(1L, "News 1");
+        second.get(1L);
+
+        // when
+        first.putAll(Map.of(1L, "Updated news 1", 2L, "News 2"));
+
+        // then
+        assertThat(second.local().containsKey(1L)).isFalse();
+        assertThat(second.get(1L)).isEqualTo("Updated news 1");
+        assertThat(second.get(2L)).isEqualTo("News 2");
+    }
+
+    @Test
+    void loadFinishingAfterDeleteShouldNotReachAnyTier() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+
+        // when
+        first.getOrLoad(1L, key -> {
+            first.delete(key);
+            return "News 1";
+        });
+
+        // then
+        assertThat(first.local().containsKey(1L)).isFalse();
+        assertThat(shared.get("news:1")).isNull();
+        assertThat(second.get(1L)).isNull();
+    }
+
+    @Test
+    void loadFinishingAfterPeerUpdateShouldNotOverwriteSharedValue() {
+        // given
+        TwoTierCache<Long, String> first = replica(shared);
+        TwoTierCache<Long, String> second = replica(shared);
+
+        // when
+        first.getOrLoad(1L, key -> {
+            second.put(key, "Updated news 1");
+            return "News 1";
+        });
+
+        // then
+        assertThat(first.get(1L)).isEqualTo("Updated news 1");
+        assertThat(second.get(1L)).isEqualTo("Updated news 1");
+    }
+
+    @Test
+    void sharedTierFailureShouldFallBackToLocalCache() {
+        // given
+        TwoTierCache<Long, String> cache = replica(new SharedCacheTier() {
+            @Override
+            public byte[] get(String key) {
+                throw new IllegalStateException("Connection refused");
+            }
+
+            @Override
+            public void put(String key, byte[] value, Duration ttl) {
+                throw new IllegalStateException("Connection refused");
+            }
+
+            @Override
+            public void delete(String key) {
+                throw new IllegalStateException("Connection refused");
+            }
+        });
+
+        // when
+        String loaded = cache.getOrLoad(1L, key -> "News 1");
+
+        // then
+        assertThat(loaded).isEqualTo("News 1");
+        assertThat(cache.get(1L)).isEqualTo("News 1");
+    }
+
+    private TwoTierCache<Long, String> replica(SharedCacheTier sharedTier) {
+        return new TwoTierCache<>(new ConcurrentLRUCache<>(10), sharedTier, hub.join(), SERIALIZER, Long::valueOf,
+                "news:", Duration.ofMinutes(4));
+    }
+}
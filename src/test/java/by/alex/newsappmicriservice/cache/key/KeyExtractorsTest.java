@@ -0,0 +1,64 @@
+package by.alex.newsappmicriservice.cache.key;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyExtractorsTest {
+
+    private final KeyExtractors keyExtractors = new KeyExtractors();
+
+    private final Object[] args = {1L, 2L};
+
+    @Test
+    void argumentExpressionsShouldBePreparedOncePerMethod() throws NoSuchMethodException {
+        // given
+        Method method = Sample.class.getDeclaredMethod("findComment", Long.class, Long.class);
+
+        // when
+        KeyExtractor byName = keyExtractors.get(method, "#commentId");
+        KeyExtractor byIndex = keyExtractors.get(method, "#p0");
+
+        // then
+        assertThat(byName.extract(args, null)).isEqualTo(2L);
+        assertThat(byIndex.extract(args, null)).isEqualTo(1L);
+        assertThat(keyExtractors.get(method, "#p0")).isSameAs(byIndex);
+    }
+
+    @Test
+    void spelExpressionsShouldCombineArgumentsAndResult() throws NoSuchMethodException {
+        // given
+        Method method = Sample.class.getDeclaredMethod("findComment", Long.class, Long.class);
+        ResponseNewsDto news = new ResponseNewsDto(7L, LocalDateTime.of(2024, 2, 1, 12, 0), "Title", "Text");
+
+        // when
+        Object composite = keyExtractors.get(method, "#newsId + ':' + #commentId").extract(args, null);
+        Object fromResult = keyExtractors.get(method, "#result.id()").extract(args, news);
+
+        // then
+        assertThat(composite).isEqualTo("1:2");
+        assertThat(fromResult).isEqualTo(7L);
+    }
+
+    @Test
+    void unknownArgumentShouldBeRejected() throws NoSuchMethodException {
+        // given
+        Method method = Sample.class.getDeclaredMethod("findComment", Long.class, Long.class);
+
+        // when, then
+        assertThatThrownBy(() -> keyExtractors.get(method, "#id")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> keyExtractors.get(method, "#p2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static class Sample {
+
+        Object findComment(Long newsId, Long commentId) {
+            return null;
+        }
+    }
+}
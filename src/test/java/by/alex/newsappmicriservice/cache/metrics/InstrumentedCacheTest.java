@@ -0,0 +1,139 @@
+package by.alex.newsappmicriservice.cache.metrics;
+
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.cache.impl.ExpiringCache;
+import by.alex.newsappmicriservice.cache.impl.TwoTierCache;
+import by.alex.newsappmicriservice.cache.serializer.ValueSerializer;
+import by.alex.newsappmicriservice.cache.tier.InMemoryInvalidationHub;
+import by.alex.newsappmicriservice.cache.tier.InMemorySharedCacheTier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InstrumentedCacheTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void getOrLoadShouldRecordMissWithLoadAndThenHit() {
+        // given
+        InstrumentedCache<Long, String> cache = new InstrumentedCache<>(new ConcurrentLRUCache<>(10), "news", registry);
+
+        // when
+        cache.getOrLoad(1L, key -> "News 1");
+        cache.getOrLoad(1L, key -> "News 1");
+        cache.get(2L);
+
+        // then
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1L);
+        assertThat(stats.missCount()).isEqualTo(2L);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1L);
+        assertThat(registry.get("cache.gets").tag("cache", "news").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("cache.load").tag("result", "success").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    void failedLoadShouldBeRecordedAsMissAndFailure() {
+        // given
+        InstrumentedCache<Long, String> cache = new InstrumentedCache<>(new ConcurrentLRUCache<>(10), "news", registry);
+
+        // when
+        assertThatThrownBy(() -> cache.getOrLoad(1L, key -> {
+            throw new IllegalStateException("News not found");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // then
+        CacheStats stats = cache.stats();
+        assertThat(stats.missCount()).isEqualTo(1L);
+        assertThat(stats.loadFailureCount()).isEqualTo(1L);
+        assertThat(stats.hitRatio()).isEqualTo(0.0);
+    }
+
+    @Test
+    void putIfAbsentShouldNotBeRecordedAsAccess() {
+        // given
+        InstrumentedCache<Long, String> cache = new InstrumentedCache<>(new ConcurrentLRUCache<>(10), "news", registry);
+        cache.put(1L, "Updated news 1");
+
+        // when
+        cache.putIfAbsent(1L, "News 1");
+        cache.putIfAbsent(2L, "News 2");
+
+        // then
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isZero();
+        assertThat(stats.missCount()).isZero();
+        assertThat(stats.loadSuccessCount()).isZero();
+        assertThat(cache.get(1L)).isEqualTo("Updated news 1");
+        assertThat(cache.get(2L)).isEqualTo("News 2");
+    }
+
+    @Test
+    void evictionsShouldBeCountedByCause() {
+        // given
+        AtomicLong ticker = new AtomicLong();
+        ExpiringCache<Long, String> expiring = new ExpiringCache<>(new ConcurrentLRUCache<>(2),
+                Duration.ofMinutes(5), null, null, Runnable::run, ticker::get);
+        InstrumentedCache<Long, String> cache = new InstrumentedCache<>(expiring, "news", registry);
+        cache.put(1L, "News 1");
+        cache.put(2L, "News 2");
+
+        // when
+        cache.put(3L, "News 3");
+        cache.delete(2L);
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+        cache.get(3L);
+
+        // then
+        CacheStats stats = cache.stats();
+        assertThat(stats.sizeEvictions()).isEqualTo(1L);
+        assertThat(stats.explicitEvictions()).isEqualTo(1L);
+        assertThat(stats.expirations()).isEqualTo(1L);
+        assertThat(stats.size()).isZero();
+        assertThat(registry.get("cache.evictions").tag("cause", "expired").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void expirationsOfTwoTierLocalCacheShouldBeCounted() {
+        // given
+        AtomicLong ticker = new AtomicLong();
+        ExpiringCache<Long, String> local = new ExpiringCache<>(new ConcurrentLRUCache<>(10),
+                Duration.ofMinutes(5), null, null, Runnable::run, ticker::get);
+        TwoTierCache<Long, String> twoTier = new TwoTierCache<>(local, new InMemorySharedCacheTier(),
+                new InMemoryInvalidationHub().join(), new StringSerializer(), Long::valueOf, "news:", null);
+        InstrumentedCache<Long, String> cache = new InstrumentedCache<>(twoTier, "news", registry);
+        cache.put(1L, "News 1");
+
+        // when
+        ticker.addAndGet(Duration.ofMinutes(5).toNanos());
+        local.get(1L);
+
+        // then
+        assertThat(cache.stats().expirations()).isEqualTo(1L);
+        assertThat(registry.get("cache.evictions").tag("cause", "expired").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+
+    private static class StringSerializer implements ValueSerializer<String> {
+
+        @Override
+        public byte[] serialize(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package by.alex.newsappmicriservice.cache.serializer;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseNewsDtoSerializerTest {
+
+    private final ResponseNewsDtoSerializer serializer = new ResponseNewsDtoSerializer();
+
+    @Test
+    void deserializeShouldRestoreSerializedNews() {
+        // given
+        ResponseNewsDto news = new ResponseNewsDto(1L, LocalDateTime.of(2024, 2, 1, 12, 30, 15, 123_000_000),
+                "Новость", "Текст новости ".repeat(10_000));
+
+        // when
+        ResponseNewsDto result = serializer.deserialize(serializer.serialize(news));
+
+        // then
+        assertThat(result).isEqualTo(news);
+    }
+
+    @Test
+    void deserializeShouldRestoreNullFields() {
+        // given
+        ResponseNewsDto news = new ResponseNewsDto(2L, null, null, "Text");
+
+        // when
+        byte[] bytes = serializer.serialize(news);
+
+        // then
+        assertThat(serializer.deserialize(bytes)).isEqualTo(news);
+        assertThat(bytes).hasSize(1 + Long.BYTES + Integer.BYTES + "Text".length());
+    }
+}
@@ -0,0 +1,151 @@
+package by.alex.newsappmicriservice.cache.simulator;
+
+import by.alex.newsappmicriservice.cache.AbstractCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLFUCache;
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.cache.impl.TinyLFUCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Симулятор доли попаданий в кэш: проигрывает трассу ключей (id новостей в порядке запросов)
+ * на реализациях кэша, доступных через spring.cache.algorithm.
+ * Для каждого ключа выполняется get, а при промахе - put, как это делает аспект кэширования.
+ * <p>
+ * Запуск на записанной трассе (один id в строке, строки с # пропускаются):
+ * {@code ./gradlew simulateCacheHitRatio -Ptrace=trace.txt -Pcapacity=1000}
+ */
+public final class HitRatioSimulator {
+
+    /**
+     * Алгоритмы кэширования по имени из spring.cache.algorithm.
+     */
+    public static final Map<String, IntFunction<AbstractCache<Long, Long>>> ALGORITHMS = new LinkedHashMap<>();
+
+    static {
+        ALGORITHMS.put("CONCURRENT_LRU", ConcurrentLRUCache::new);
+        ALGORITHMS.put("CONCURRENT_LFU", ConcurrentLFUCache::new);
+        ALGORITHMS.put("TINYLFU", TinyLFUCache::new);
+    }
+
+    private HitRatioSimulator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[0].isBlank()) {
+            System.err.println("Usage: HitRatioSimulator <trace-file> [capacity]");
+            System.exit(1);
+        }
+        List<Long> trace = readTrace(Path.of(args[0]));
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        System.out.printf("Trace: %s, accesses: %d, capacity: %d%n", args[0], trace.size(), capacity);
+        simulate(trace, capacity).forEach((algorithm, hitRatio) ->
+                System.out.printf("%-15s %6.2f%%%n", algorithm, hitRatio * 100));
+    }
+
+    /**
+     * Проигрывает трассу на всех алгоритмах кэширования.
+     *
+     * @param trace    Последовательность запрошенных ключей.
+     * @param capacity Размер кэша.
+     * @return Доля попаданий по имени алгоритма.
+     */
+    public static Map<String, Double> simulate(List<Long> trace, int capacity) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        ALGORITHMS.forEach((algorithm, factory) -> result.put(algorithm, hitRatio(factory.apply(capacity), trace)));
+        return result;
+    }
+
+    /**
+     * Проигрывает трассу на одном кэше.
+     *
+     * @param cache Кэш.
+     * @param trace Последовательность запрошенных ключей.
+     * @return Доля попаданий.
+     */
+    public static double hitRatio(AbstractCache<Long, Long> cache, List<Long> trace) {
+        long hits = 0;
+        for (Long key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return trace.isEmpty() ? 0 : (double) hits / trace.size();
+    }
+
+    /**
+     * Читает записанную трассу: один id в строке, пустые строки и строки с # пропускаются.
+     *
+     * @param path Путь к файлу трассы.
+     * @return Последовательность ключей.
+     */
+    public static List<Long> readTrace(Path path) throws IOException {
+        try (Stream<String> lines = Files.lines(path)) {
+            return lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(Long::valueOf)
+                    .toList();
+        }
+    }
+
+    /**
+     * Генерирует трассу с распределением Ципфа: ключ с рангом r запрашивается с вероятностью ~ 1/r^skew.
+     *
+     * @param keys   Количество различных ключей.
+     * @param skew   Показатель перекоса.
+     * @param length Длина трассы.
+     * @param seed   Начальное значение генератора.
+     * @return Последовательность ключей от 1 до keys.
+     */
+    public static List<Long> zipfTrace(int keys, double skew, int length, long seed) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int rank = 1; rank <= keys; rank++) {
+            sum += 1 / Math.pow(rank, skew);
+            cumulative[rank - 1] = sum;
+        }
+        Random random = new Random(seed);
+        List<Long> trace = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace.add((long) (index >= 0 ? index : -index - 1) + 1);
+        }
+        return trace;
+    }
+
+    /**
+     * Добавляет в трассу последовательные обходы новых id (как у краулера) через равные промежутки.
+     *
+     * @param trace      Исходная трасса.
+     * @param every      Через сколько обращений вставлять обход.
+     * @param scanLength Длина одного обхода.
+     * @param firstId    Первый id обхода, должен быть больше ключей исходной трассы.
+     * @return Трасса с обходами.
+     */
+    public static List<Long> withScans(List<Long> trace, int every, int scanLength, long firstId) {
+        List<Long> result = new ArrayList<>(trace.size() + trace.size() / every * scanLength);
+        long nextId = firstId;
+        for (int i = 0; i < trace.size(); i++) {
+            if (i > 0 && i % every == 0) {
+                for (int j = 0; j < scanLength; j++) {
+                    result.add(nextId++);
+                }
+            }
+            result.add(trace.get(i));
+        }
+        return result;
+    }
+}
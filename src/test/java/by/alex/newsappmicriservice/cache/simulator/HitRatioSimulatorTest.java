@@ -0,0 +1,43 @@
+package by.alex.newsappmicriservice.cache.simulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HitRatioSimulatorTest {
+
+    @Test
+    void tinyLfuShouldResistScanPollution() {
+        // given
+        List<Long> zipf = HitRatioSimulator.zipfTrace(5_000, 0.9, 100_000, 42);
+        List<Long> trace = HitRatioSimulator.withScans(zipf, 5_000, 1_000, 1_000_000);
+
+        // when
+        Map<String, Double> hitRatios = HitRatioSimulator.simulate(trace, 250);
+
+        // then
+        assertThat(hitRatios.get("TINYLFU")).isGreaterThan(hitRatios.get("CONCURRENT_LRU"));
+        hitRatios.values().forEach(hitRatio -> assertThat(hitRatio).isBetween(0.0, 1.0));
+    }
+
+    @Test
+    void readTraceShouldSkipCommentsAndBlankLines() throws IOException {
+        // given
+        Path file = Files.createTempFile("trace", ".txt");
+        Files.writeString(file, "# GET /news/{id}\n1\n\n2\n 1 \n");
+
+        // when
+        List<Long> trace = HitRatioSimulator.readTrace(file);
+
+        // then
+        assertThat(trace).containsExactly(1L, 2L, 1L);
+        assertThat(HitRatioSimulator.simulate(trace, 10).get("CONCURRENT_LRU")).isEqualTo(1.0 / 3);
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,45 @@
+package by.alex.newsappmicriservice.cache.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotKeySnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writtenKeysShouldBeReadSortedAndCompact() throws IOException {
+        // given
+        Path file = directory.resolve("news-cache.snapshot");
+        List<Long> keys = List.of(1_000_003L, 5L, 1_000_001L, 1_000_002L, 5L, Long.MAX_VALUE);
+
+        // when
+        HotKeySnapshot.write(file, keys);
+
+        // then
+        assertThat(HotKeySnapshot.read(file)).isEqualTo(List.of(5L, 1_000_001L, 1_000_002L, 1_000_003L, Long.MAX_VALUE));
+        assertThat(Files.size(file)).isLessThan(2 * Integer.BYTES + 5L * Long.BYTES);
+    }
+
+    @Test
+    void missingSnapshotShouldBeEmptyAndForeignFileRejected() throws IOException {
+        // given
+        Path foreign = Files.write(directory.resolve("foreign.snapshot"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        // when
+        List<Long> missing = HotKeySnapshot.read(directory.resolve("missing.snapshot"));
+
+        // then
+        assertThat(missing).isEmpty();
+        assertThatThrownBy(() -> HotKeySnapshot.read(foreign)).isInstanceOf(IOException.class);
+    }
+}
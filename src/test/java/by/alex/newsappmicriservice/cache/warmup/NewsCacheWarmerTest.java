@@ -0,0 +1,62 @@
+package by.alex.newsappmicriservice.cache.warmup;
+
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.entity.News;
+import by.alex.newsappmicriservice.mapper.NewsMapper;
+import by.alex.newsappmicriservice.repository.NewsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NewsCacheWarmerTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Test
+    void newestNewsShouldBeLoadedByFeedCursor() {
+        // given
+        NewsRepository repository = mock(NewsRepository.class);
+        NewsMapper mapper = mock(NewsMapper.class);
+        when(mapper.toDto(any(News.class))).thenAnswer(invocation -> {
+            News news = invocation.getArgument(0);
+            return new ResponseNewsDto(news.getId(), news.getTime(), news.getTitle(), news.getText());
+        });
+        List<News> first = news(250, 151);
+        News last = first.get(first.size() - 1);
+        when(repository.findFeed(PageRequest.ofSize(100))).thenReturn(first);
+        when(repository.findFeedAfter(last.getTime(), last.getId(), PageRequest.ofSize(50)))
+                .thenReturn(news(150, 101));
+        ConcurrentLRUCache<Long, ResponseNewsDto> cache = new ConcurrentLRUCache<>(1000);
+        NewsCacheWarmer warmer = new NewsCacheWarmer(cache, repository, mapper, 150, null, Duration.ofSeconds(10), 2);
+
+        // when
+        warmer.warmUp();
+
+        // then
+        assertThat(cache.size()).isEqualTo(150);
+        assertThat(cache.containsKey(250L)).isTrue();
+        assertThat(cache.containsKey(101L)).isTrue();
+        verify(repository, never()).findAll(any(Pageable.class));
+    }
+
+    private static List<News> news(long fromId, long toId) {
+        List<News> news = new ArrayList<>();
+        for (long id = fromId; id >= toId; id--) {
+            news.add(new News(id, TIME.minusMinutes(250 - id), "News " + id, "This is news " + id));
+        }
+        return news;
+    }
+}
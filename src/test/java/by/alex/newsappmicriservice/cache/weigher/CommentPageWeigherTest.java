@@ -0,0 +1,28 @@
+package by.alex.newsappmicriservice.cache.weigher;
+
+import by.alex.newsappmicriservice.dto.CommentDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentPageWeigherTest {
+
+    private final CommentPageWeigher weigher = new CommentPageWeigher();
+
+    @Test
+    void weighShouldGrowWithEveryComment() {
+        // given
+        CommentDto comment = CommentDto.builder().id(1L).text("a".repeat(100)).username("Alex").newsId("1").build();
+
+        // when
+        int empty = weigher.weigh("1:0:10", List.of());
+        int one = weigher.weigh("1:0:10", List.of(comment));
+        int two = weigher.weigh("1:0:10", List.of(comment, comment));
+
+        // then
+        assertThat(two - one).isEqualTo(one - empty);
+        assertThat(one - empty).isGreaterThan(200);
+    }
+}
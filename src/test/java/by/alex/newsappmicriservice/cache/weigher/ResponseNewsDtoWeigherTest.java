@@ -0,0 +1,29 @@
+package by.alex.newsappmicriservice.cache.weigher;
+
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseNewsDtoWeigherTest {
+
+    private final ResponseNewsDtoWeigher weigher = new ResponseNewsDtoWeigher();
+
+    @Test
+    void weighShouldGrowWithTextLength() {
+        // given
+        LocalDateTime time = LocalDateTime.of(2024, 2, 1, 12, 0);
+        ResponseNewsDto memo = new ResponseNewsDto(1L, time, "Title", "Memo");
+        ResponseNewsDto article = new ResponseNewsDto(2L, time, "Title", "a".repeat(1000));
+
+        // when
+        int memoWeight = weigher.weigh(1L, memo);
+        int articleWeight = weigher.weigh(2L, article);
+
+        // then
+        assertThat(articleWeight - memoWeight).isEqualTo(2 * (1000 - "Memo".length()));
+        assertThat(articleWeight).isGreaterThan(2000);
+    }
+}
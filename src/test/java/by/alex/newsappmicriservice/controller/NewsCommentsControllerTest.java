@@ -0,0 +1,58 @@
+package by.alex.newsappmicriservice.controller;
+
+import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.RequestNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
+import by.alex.newsappmicriservice.service.NewsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = NewsCommentsController.class)
+public class NewsCommentsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private NewsService<ResponseNewsDto, RequestNewsDto> newsService;
+
+    @Test
+    public void getNewsByIdWithAllComments_success() throws Exception {
+        Long newsId = 1L;
+        ResponseNewsDtoWithComments newsWithComments = ResponseNewsDtoWithComments.builder()
+                .id(newsId)
+                .time(LocalDateTime.MAX)
+                .title("News with comments")
+                .text("This is a news with comments")
+                .commentDto(List.of(
+                        CommentDto.builder().id(1L).time(LocalDateTime.MIN).text("Comment 1").username("Alex").newsId("2").build(),
+                        CommentDto.builder().id(2L).time(LocalDateTime.MIN).text("Comment 2").username("Lelia").newsId("3").build()
+                ))
+                .build();
+
+
+        Mockito.when(newsService.findNewsWithComments(newsId, 0, 100)).thenReturn(newsWithComments);
+
+        mockMvc.perform(get("/news/{id}/comments", newsId)
+                        .param("page", "0")
+                        .param("size", "100")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(newsId))
+                .andExpect(jsonPath("$.commentDto", hasSize(2)));
+    }
+}
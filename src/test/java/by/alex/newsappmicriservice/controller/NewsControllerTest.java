@@ -1,10 +1,13 @@
 package by.alex.newsappmicriservice.controller;
 
 import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.CursorPage;
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.dto.RequestNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
 import by.alex.newsappmicriservice.service.NewsService;
+import by.alex.newsappmicriservice.service.export.NewsExporter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -38,6 +41,9 @@ public class NewsControllerTest {
     @MockBean
     private NewsService<ResponseNewsDto, RequestNewsDto> newsService;
 
+    @MockBean
+    private NewsExporter newsExporter;
+
     @Test
     public void getNewsById_success() throws Exception {
         Long newsId = 1L;
@@ -93,6 +99,49 @@ public class NewsControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    public void createNewsBatch_success() throws Exception {
+        List<RequestNewsDto> requestNews = List.of(
+                new RequestNewsDto(null, LocalDateTime.MAX, "News 1", "This is news 1"),
+                new RequestNewsDto(null, LocalDateTime.MAX, "News 2", "This is news 2"));
+        List<ResponseNewsDto> createdNews = List.of(
+                new ResponseNewsDto(1L, LocalDateTime.MAX, "News 1", "This is news 1"),
+                new ResponseNewsDto(2L, LocalDateTime.MAX, "News 2", "This is news 2"));
+        Mockito.when(newsService.createAll(requestNews)).thenReturn(createdNews);
+
+        mockMvc.perform(post("/news/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestNews)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(2L));
+    }
+
+    @Test
+    public void updateNewsBatch_success() throws Exception {
+        List<RequestNewsDto> requestNews = List.of(
+                new RequestNewsDto(1L, LocalDateTime.MAX, "Updated News", "This is an updated news"));
+        List<ResponseNewsDto> updatedNews = List.of(
+                new ResponseNewsDto(1L, LocalDateTime.MAX, "Updated News", "This is an updated news"));
+        Mockito.when(newsService.updateAll(requestNews)).thenReturn(updatedNews);
+
+        mockMvc.perform(put("/news/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestNews)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Updated News"));
+    }
+
+    @Test
+    public void deleteNewsBatch_success() throws Exception {
+        mockMvc.perform(delete("/news/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(newsService).deleteAll(List.of(1L, 2L));
+    }
+
     @Test
     public void getAllNews_success() throws Exception {
         List<ResponseNewsDto> newsList = List.of(
@@ -110,29 +159,77 @@ public class NewsControllerTest {
     }
 
     @Test
-    public void getNewsByIdWithAllComments_success() throws Exception {
-        Long newsId = 1L;
-        ResponseNewsDtoWithComments newsWithComments = ResponseNewsDtoWithComments.builder()
-                .id(newsId)
+    public void getAllNewsWithComments_success() throws Exception {
+        List<ResponseNewsDtoWithComments> newsList = List.of(ResponseNewsDtoWithComments.builder()
+                .id(1L)
                 .time(LocalDateTime.MAX)
-                .title("News with comments")
-                .text("This is a news with comments")
-                .commentDto(List.of(
-                        CommentDto.builder().id(1L).time(LocalDateTime.MIN).text("Comment 1").username("Alex").newsId("2").build(),
-                        CommentDto.builder().id(2L).time(LocalDateTime.MIN).text("Comment 2").username("Lelia").newsId("3").build()
-                ))
-                .build();
+                .title("News 1")
+                .text("This is news 1")
+                .commentDto(List.of(CommentDto.builder().id(1L).text("This is comment 1").newsId("1").build()))
+                .build());
+        Mockito.when(newsService.findAllWithComments(0, 10, 3)).thenReturn(newsList);
+
+        mockMvc.perform(get("/news")
+                        .param("withComments", "3")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].commentDto", hasSize(1)));
+    }
 
+    @Test
+    public void getNewsFeed_success() throws Exception {
+        CursorPage<ResponseNewsDto> feed = new CursorPage<>(List.of(
+                new ResponseNewsDto(2L, LocalDateTime.MAX, "News 2", "This is news 2"),
+                new ResponseNewsDto(1L, LocalDateTime.MAX, "News 1", "This is news 1")
+        ), "next-cursor");
+        Mockito.when(newsService.findFeed("", 2)).thenReturn(feed);
 
-        Mockito.when(newsService.findNewsWithComments(newsId, 0, 100)).thenReturn(newsWithComments);
+        mockMvc.perform(get("/news")
+                        .param("after", "")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.next").value("next-cursor"));
+    }
 
-        mockMvc.perform(get("/news/{id}/comments", newsId)
-                        .param("page", "0")
-                        .param("size", "100")
+    @Test
+    public void getNewsSummaries_success() throws Exception {
+        List<NewsSummaryDto> summaries = List.of(
+                new NewsSummaryDto(1L, LocalDateTime.MAX, "News 1", "This is news 1"),
+                new NewsSummaryDto(2L, LocalDateTime.MAX, "News 2", "This is news 2")
+        );
+        Mockito.when(newsService.findAllSummaries(0, 10)).thenReturn(summaries);
+
+        mockMvc.perform(get("/news")
+                        .param("view", "summary")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(newsId))
-                .andExpect(jsonPath("$.commentDto", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].snippet").value("This is news 1"))
+                .andExpect(jsonPath("$[0].text").doesNotExist());
+    }
+
+    @Test
+    public void getAllNewsWithCommentsAndSummaryView_badRequest() throws Exception {
+        mockMvc.perform(get("/news")
+                        .param("withComments", "3")
+                        .param("view", "summary")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(newsService);
     }
-}
 
+    @Test
+    public void getNewsFeedWithComments_badRequest() throws Exception {
+        mockMvc.perform(get("/news")
+                        .param("withComments", "3")
+                        .param("after", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(newsService);
+    }
+}
@@ -0,0 +1,63 @@
+package by.alex.newsappmicriservice.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заглушка сервиса комментариев для {@link NewsLoadGenerator}: на GET /comments/news/{id} отвечает
+ * одним комментарием с заданной задержкой. Задержка выдерживается планировщиком, а не спящими потоками,
+ * поэтому заглушка держит тысячи одновременных запросов и не ограничивает сравниваемые режимы.
+ * <p>
+ * Запуск: {@code ./gradlew commentServiceStub -Pport=8082 -Pdelay=200}, в приложении comments.url
+ * указывает на {@code http://localhost:8082/comments}. Чтобы запросы доходили до заглушки, а не до кэша
+ * страниц комментариев, генератору задается число новостей больше, чем помещается в кэш страниц.
+ */
+public final class CommentServiceStub {
+
+    private static final byte[] BODY = """
+            [{"id":1,"time":"2024-02-01T12:00:00","text":"Load test comment","username":"load","newsId":"1"}]"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private CommentServiceStub() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 && !args[0].isBlank() ? Integer.parseInt(args[0]) : 8082;
+        long delay = args.length > 1 && !args[1].isBlank() ? Long.parseLong(args[1]) : 200;
+        start(port, delay);
+        System.out.printf("Comment service stub on http://localhost:%d/comments, delay: %d ms%n", port, delay);
+    }
+
+    /**
+     * Запускает заглушку.
+     *
+     * @param port  Порт, 0 - любой свободный.
+     * @param delay Задержка ответа в миллисекундах.
+     * @return Запущенный сервер.
+     */
+    public static HttpServer start(int port, long delay) throws IOException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 4096);
+        server.createContext("/comments/news/", exchange -> scheduler.schedule(() -> {
+            try (exchange) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, BODY.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(BODY);
+                }
+            } catch (IOException e) {
+                System.err.println("Response not sent: " + e.getMessage());
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        return server;
+    }
+}
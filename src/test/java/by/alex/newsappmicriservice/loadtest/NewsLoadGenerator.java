@@ -0,0 +1,142 @@
+package by.alex.newsappmicriservice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Генератор нагрузки на GET /news/{id}/comments: держит заданное число одновременных запросов
+ * в течение заданного времени и выводит пропускную способность и задержки (p50, p99, максимум).
+ * Запросы отправляются асинхронно, поэтому число одновременных запросов не ограничено потоками генератора.
+ * <p>
+ * Сравнение режимов: приложение запускается с профилем по умолчанию (поток на запрос) и с профилем reactive
+ * против медленного сервиса комментариев ({@link CommentServiceStub}), затем для каждого запуска:
+ * {@code ./gradlew newsLoadTest -Purl=http://localhost:8081/news -Pconcurrency=1000 -Pduration=30 -Pids=1000}
+ */
+public final class NewsLoadGenerator {
+
+    private NewsLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args[0].isBlank()) {
+            System.err.println("Usage: NewsLoadGenerator <news-url> [concurrency] [duration-seconds] [ids]");
+            System.exit(1);
+        }
+        String url = args[0];
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        int ids = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        System.out.printf("Target: %s/{id}/comments, concurrency: %d, duration: %s, ids: %d%n",
+                url, concurrency, duration, ids);
+        Result result = run(url, concurrency, duration, ids);
+        System.out.printf("requests: %d, errors: %d, throughput: %.1f req/s%n",
+                result.requests(), result.errors(), result.throughput());
+        System.out.printf("latency ms: p50 %.1f, p99 %.1f, max %.1f%n",
+                result.percentileMillis(0.5), result.percentileMillis(0.99), result.percentileMillis(1));
+    }
+
+    /**
+     * Выполняет нагрузку. Ответы со статусом, отличным от 2xx, и ошибки соединения считаются ошибками.
+     *
+     * @param url         Адрес /news.
+     * @param concurrency Число одновременных запросов.
+     * @param duration    Длительность нагрузки.
+     * @param ids         Запрашиваются новости с id от 1 до ids.
+     * @return Результат нагрузки.
+     */
+    public static Result run(String url, int concurrency, Duration duration, int ids) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        LongAdder errors = new LongAdder();
+        Latencies latencies = new Latencies();
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/" + (random.nextInt(ids) + 1) + "/comments"))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies.add(System.nanoTime() - sent);
+                        if (e != null || response.statusCode() / 100 != 2) {
+                            errors.increment();
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - start;
+        return new Result(latencies.sorted(), errors.sum(), elapsed);
+    }
+
+    /**
+     * Результат нагрузки.
+     *
+     * @param latencies Задержки запросов в наносекундах по возрастанию.
+     * @param errors    Число ошибок.
+     * @param elapsed   Длительность нагрузки в наносекундах, включая ожидание последних ответов.
+     */
+    public record Result(long[] latencies, long errors, long elapsed) {
+
+        public long requests() {
+            return latencies.length;
+        }
+
+        public double throughput() {
+            return elapsed == 0 ? 0 : latencies.length * 1e9 / elapsed;
+        }
+
+        /**
+         * Возвращает перцентиль задержки (по ближайшему рангу).
+         *
+         * @param quantile Квантиль от 0 до 1.
+         * @return Задержка в миллисекундах, 0 если запросов не было.
+         */
+        public double percentileMillis(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * latencies.length);
+            return latencies[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+
+    /**
+     * Задержки, добавляемые из потоков HTTP клиента.
+     */
+    private static final class Latencies {
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private long[] values = new long[1 << 16];
+
+        synchronized void add(long latency) {
+            int index = size.getAndIncrement();
+            if (index == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[index] = latency;
+        }
+
+        synchronized long[] sorted() {
+            long[] result = Arrays.copyOf(values, size.get());
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
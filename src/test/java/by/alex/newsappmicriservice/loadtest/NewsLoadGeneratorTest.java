@@ -0,0 +1,47 @@
+package by.alex.newsappmicriservice.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NewsLoadGeneratorTest {
+
+    @Test
+    void runShouldKeepConcurrentRequestsAndMeasureStubDelay() throws Exception {
+        // given
+        HttpServer stub = CommentServiceStub.start(0, 20);
+        String url = "http://localhost:" + stub.getAddress().getPort() + "/comments/news";
+
+        try {
+            // when
+            NewsLoadGenerator.Result result = NewsLoadGenerator.run(url, 8, Duration.ofMillis(500), 10);
+
+            // then
+            assertThat(result.errors()).isZero();
+            assertThat(result.requests()).isGreaterThan(8);
+            assertThat(result.percentileMillis(0.5)).isGreaterThanOrEqualTo(20);
+            assertThat(result.percentileMillis(0.99)).isLessThanOrEqualTo(result.percentileMillis(1));
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    void percentileShouldUseNearestRank() {
+        // given
+        NewsLoadGenerator.Result result = new NewsLoadGenerator.Result(
+                new long[]{1_000_000, 2_000_000, 3_000_000, 4_000_000}, 0, 1_000_000_000);
+
+        // when
+        double p50 = result.percentileMillis(0.5);
+        double p99 = result.percentileMillis(0.99);
+
+        // then
+        assertThat(p50).isEqualTo(2.0);
+        assertThat(p99).isEqualTo(4.0);
+        assertThat(result.throughput()).isEqualTo(4.0);
+    }
+}
@@ -0,0 +1,49 @@
+package by.alex.newsappmicriservice.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadMetricsTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void blockingInsideSynchronizedShouldBeRecordedAsPinned() throws InterruptedException {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (VirtualThreadMetrics metrics = new VirtualThreadMetrics(Duration.ofMillis(10))) {
+            metrics.bindTo(registry);
+            Timer pinned = registry.get("jvm.threads.virtual.pinned").timer();
+
+            // when
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleep(50);
+                }
+            }).join();
+            Thread.ofVirtual().start(() -> sleep(50)).join();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pinned.count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+
+            // then
+            assertThat(pinned.count()).isEqualTo(1);
+            assertThat(pinned.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(40);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package by.alex.newsappmicriservice.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchMetricsTest {
+
+    @Test
+    void recordedQueriesShouldBeSplitByResult() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SearchMetrics metrics = new SearchMetrics(registry);
+
+        // when
+        metrics.recordSuccess(Duration.ofMillis(12), Duration.ofMillis(5), 42);
+        metrics.recordSuccess(Duration.ofMillis(8), Duration.ofMillis(3), 0);
+        metrics.recordFailure(Duration.ofMillis(30));
+
+        // then
+        assertThat(registry.get("news.search").tag("result", "success").timer().count()).isEqualTo(2);
+        assertThat(registry.get("news.search").tag("result", "success").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(20);
+        assertThat(registry.get("news.search").tag("result", "failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("news.search.engine").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8);
+        assertThat(registry.get("news.search.hits").summary().totalAmount()).isEqualTo(42);
+    }
+}
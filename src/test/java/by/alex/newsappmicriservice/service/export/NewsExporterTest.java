@@ -0,0 +1,92 @@
+package by.alex.newsappmicriservice.service.export;
+
+import by.alex.newsappmicriservice.cache.serializer.ResponseNewsDtoSerializer;
+import by.alex.newsappmicriservice.dto.ResponseNewsDto;
+import by.alex.newsappmicriservice.entity.News;
+import by.alex.newsappmicriservice.mapper.NewsMapper;
+import by.alex.newsappmicriservice.repository.NewsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NewsExporterTest {
+
+    @Mock
+    NewsRepository repository;
+    @Mock
+    NewsMapper mapper;
+    @Mock
+    EntityManager entityManager;
+
+    private NewsExporter newsExporter;
+
+    private final List<News> news = List.of(
+            new News(11L, LocalDateTime.of(2024, 2, 26, 12, 0), "News 11", "This is news 11"),
+            new News(12L, LocalDateTime.of(2024, 2, 26, 13, 0), "News 12", "This is news 12")
+    );
+
+    @BeforeEach
+    void setUp() {
+        newsExporter = new NewsExporter(repository, mapper, new ObjectMapper().findAndRegisterModules(), entityManager);
+        when(repository.streamAllAfter(10L)).thenReturn(news.stream());
+        when(mapper.toDto(any(News.class))).thenAnswer(invocation -> {
+            News entity = invocation.getArgument(0);
+            return new ResponseNewsDto(entity.getId(), entity.getTime(), entity.getTitle(), entity.getText());
+        });
+    }
+
+    @Test
+    void ndjsonExportShouldWriteOneNewsPerLineAndDetachEntities() throws IOException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = newsExporter.export(10L, ExportFormat.NDJSON, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2L);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":11,");
+        assertThat(lines[1]).contains("\"title\":\"News 12\"");
+        verify(entityManager, times(2)).detach(any(News.class));
+    }
+
+    @Test
+    void binaryExportShouldWriteLengthPrefixedFrames() throws IOException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResponseNewsDtoSerializer serializer = new ResponseNewsDtoSerializer();
+
+        // when
+        newsExporter.export(10L, ExportFormat.BINARY, out);
+
+        // then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        for (News expected : news) {
+            byte[] frame = in.readNBytes(in.readInt());
+            assertThat(serializer.deserialize(frame).id()).isEqualTo(expected.getId());
+        }
+        assertThat(in.available()).isZero();
+    }
+}
@@ -1,28 +1,44 @@
 package by.alex.newsappmicriservice.service.impl;
 
+import by.alex.newsappmicriservice.cache.AbstractCache;
 import by.alex.newsappmicriservice.dto.CommentDto;
+import by.alex.newsappmicriservice.dto.CursorPage;
+import by.alex.newsappmicriservice.dto.NewsCursor;
+import by.alex.newsappmicriservice.dto.NewsSummaryDto;
 import by.alex.newsappmicriservice.dto.RequestNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDto;
 import by.alex.newsappmicriservice.dto.ResponseNewsDtoWithComments;
 import by.alex.newsappmicriservice.entity.News;
 import by.alex.newsappmicriservice.mapper.NewsMapper;
 import by.alex.newsappmicriservice.repository.NewsRepository;
+import by.alex.newsappmicriservice.search.SearchMetrics;
+import by.bulbach.exceptionspringbootstarter.exception.InvalidRequestException;
 import by.bulbach.exceptionspringbootstarter.exception.NewsNotFoundException;
 import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -30,9 +46,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,14 +62,30 @@ class NewsServiceImplTest {
     @Mock
     EntityManagerFactory entityManagerFactory;
     @Mock
-    APIClient commentClient;
+    ResilientCommentClient commentClient;
     @Mock
     NewsMapper mapper;
     @Mock
+    AbstractCache<Long, ResponseNewsDto> newsCache;
+    @Spy
+    ExecutorService commentFetchExecutor = Executors.newSingleThreadExecutor();
+    @Mock
+    SearchMetrics searchMetrics;
+    @Mock
     Logger log;
     @InjectMocks
     NewsServiceImpl newsService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(newsService, "commentTimeout", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentFetchExecutor.shutdownNow();
+    }
+
 
     @Test
     void findByIdShouldReturnExpectedNews() {
@@ -79,12 +115,12 @@ class NewsServiceImplTest {
                 new News(1L, LocalDateTime.MAX, "News 1", "This is news 1"),
                 new News(2L, LocalDateTime.MAX, "News 2", "This is news 2")
         );
-        Page<News> newsPage = new PageImpl<>(newsList, pageable, newsList.size());
+        Slice<News> newsPage = new SliceImpl<>(newsList, pageable, false);
 
         ResponseNewsDto responseDto = new ResponseNewsDto(1L, LocalDateTime.MAX, "News 1", "This is news 1");
 
         // when
-        when(repository.findAll(any(Pageable.class))).thenReturn(newsPage);
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(newsPage);
         when(mapper.toDto(any(News.class))).thenReturn(responseDto);
 
         // when
@@ -93,7 +129,73 @@ class NewsServiceImplTest {
         // then
         assertThat(result).isNotNull();
         assertThat(result).hasSize(2);
+        verify(repository, never()).count();
+
+    }
+
+    @Test
+    void findAllSummariesShouldUseProjectionWithoutMapper() {
+        // given
+        List<NewsSummaryDto> summaries = List.of(
+                new NewsSummaryDto(1L, LocalDateTime.MAX, "News 1", "This is"),
+                new NewsSummaryDto(2L, LocalDateTime.MAX, "News 2", "This is")
+        );
+        when(repository.findSummaries(anyInt(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(summaries, PageRequest.of(0, 2), false));
+
+        // when
+        List<NewsSummaryDto> result = newsService.findAllSummaries(0, 2);
+
+        // then
+        assertThat(result).isEqualTo(summaries);
+        verify(mapper, never()).toDto(any(News.class));
+    }
+
+    @Test
+    void findFeedShouldReturnCursorOfLastNewsWhenMoreNewsExist() {
+        // given
+        LocalDateTime time = LocalDateTime.of(2024, 2, 26, 12, 0);
+        List<News> newsList = List.of(
+                new News(3L, time, "News 3", "This is news 3"),
+                new News(2L, time, "News 2", "This is news 2"),
+                new News(1L, time.minusDays(1), "News 1", "This is news 1")
+        );
+        NewsCursor after = new NewsCursor(time.plusDays(1), 10L);
+        when(repository.findFeedAfter(after.time(), after.id(), PageRequest.ofSize(3))).thenReturn(newsList);
+        when(mapper.toDto(any(News.class))).thenAnswer(invocation -> {
+            News news = invocation.getArgument(0);
+            return new ResponseNewsDto(news.getId(), news.getTime(), news.getTitle(), news.getText());
+        });
+
+        // when
+        CursorPage<ResponseNewsDto> result = newsService.findFeed(after.encode(), 2);
 
+        // then
+        assertThat(result.items()).extracting(ResponseNewsDto::id).containsExactly(3L, 2L);
+        assertThat(NewsCursor.decode(result.next())).isEqualTo(new NewsCursor(time, 2L));
+    }
+
+    @Test
+    void findFeedShouldRejectDamagedCursor() {
+        // when, then
+        assertThrows(InvalidRequestException.class, () -> newsService.findFeed("not a cursor", 10));
+    }
+
+    @Test
+    void findFeedShouldRejectTooLargePage() {
+        // when, then
+        assertThrows(InvalidRequestException.class, () -> newsService.findFeed("", Integer.MAX_VALUE));
+        assertThrows(InvalidRequestException.class, () -> newsService.findFeedSummaries("", 101));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void searchShouldRejectPageOutOfRange() {
+        // when, then
+        assertThrows(InvalidRequestException.class, () -> newsService.search("news", -1, 10));
+        assertThrows(InvalidRequestException.class, () -> newsService.search("news", 0, 0));
+        assertThrows(InvalidRequestException.class, () -> newsService.search("news", Integer.MAX_VALUE / 10 + 1, 10));
+        verifyNoInteractions(entityManagerFactory, searchMetrics);
     }
 
     @Test
@@ -137,6 +239,66 @@ class NewsServiceImplTest {
         assertEquals(responseDto, result);
     }
 
+    @Test
+    void createAllShouldSaveNewsInOneCall() {
+        // given
+        RequestNewsDto first = new RequestNewsDto(null, LocalDateTime.MAX, "First", "First news");
+        RequestNewsDto second = new RequestNewsDto(null, LocalDateTime.MAX, "Second", "Second news");
+        News firstNews = new News(null, LocalDateTime.MAX, "First", "First news");
+        News secondNews = new News(null, LocalDateTime.MAX, "Second", "Second news");
+        News savedFirst = new News(1L, LocalDateTime.MAX, "First", "First news");
+        News savedSecond = new News(2L, LocalDateTime.MAX, "Second", "Second news");
+        ResponseNewsDto firstDto = new ResponseNewsDto(1L, LocalDateTime.MAX, "First", "First news");
+        ResponseNewsDto secondDto = new ResponseNewsDto(2L, LocalDateTime.MAX, "Second", "Second news");
+
+        when(mapper.toModel(first)).thenReturn(firstNews);
+        when(mapper.toModel(second)).thenReturn(secondNews);
+        when(repository.saveAll(List.of(firstNews, secondNews))).thenReturn(List.of(savedFirst, savedSecond));
+        when(mapper.toDto(savedFirst)).thenReturn(firstDto);
+        when(mapper.toDto(savedSecond)).thenReturn(secondDto);
+
+        // when
+        List<ResponseNewsDto> result = newsService.createAll(List.of(first, second));
+
+        // then
+        assertThat(result).containsExactly(firstDto, secondDto);
+        verify(repository, never()).save(any(News.class));
+    }
+
+    @Test
+    void createAllShouldRejectEmptyBatch() {
+        // when, then
+        assertThrows(InvalidRequestException.class, () -> newsService.createAll(List.of()));
+    }
+
+    @Test
+    void updateAllShouldThrowWhenAnyNewsIsMissing() {
+        // given
+        RequestNewsDto existing = new RequestNewsDto(1L, LocalDateTime.MAX, "Updated", "Updated news");
+        RequestNewsDto missing = new RequestNewsDto(2L, LocalDateTime.MAX, "Missing", "Missing news");
+        when(repository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(new News(1L, LocalDateTime.now(), "Old", "Old news")));
+
+        // when, then
+        assertThrows(NewsNotFoundException.class, () -> newsService.updateAll(List.of(existing, missing)));
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void deleteAllShouldDeleteFoundEntities() {
+        // given
+        List<News> found = List.of(
+                new News(1L, LocalDateTime.now(), "First", "First news"),
+                new News(2L, LocalDateTime.now(), "Second", "Second news"));
+        when(repository.findAllById(List.of(1L, 2L))).thenReturn(found);
+
+        // when
+        newsService.deleteAll(List.of(1L, 2L));
+
+        // then
+        verify(repository).deleteAll(found);
+    }
+
     @Test
     void testFindById_NotFound() {
         // Given
@@ -184,7 +346,10 @@ class NewsServiceImplTest {
                                 .newsId("1").build())
                 ).build();
 
+        when(newsCache.getOrLoad(eq(newsId), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, ResponseNewsDto>>getArgument(1).apply(newsId));
         when(repository.findById(newsId)).thenReturn(Optional.of(news));
+        when(mapper.toDto(news)).thenReturn(new ResponseNewsDto(news.getId(), news.getTime(), news.getTitle(), news.getText()));
 
         when(commentClient.getCommentsByNewsId(newsId, size, page))
                 .thenReturn(List.of(CommentDto.builder()
@@ -203,6 +368,66 @@ class NewsServiceImplTest {
         assertEquals(expectedResponse, result);
     }
 
+    @Test
+    void findNewsWithCommentsShouldReturnNewsWithoutCommentsWhenCommentsAreLate() {
+        // given
+        Long newsId = 1L;
+        ResponseNewsDto news = new ResponseNewsDto(newsId, LocalDateTime.MAX, "News 1", "This is news 1");
+        CountDownLatch released = new CountDownLatch(1);
+        ReflectionTestUtils.setField(newsService, "commentTimeout", Duration.ofMillis(50));
+        when(newsCache.getOrLoad(eq(newsId), any())).thenReturn(news);
+        when(commentClient.getCommentsByNewsId(newsId, 10, 0)).thenAnswer(invocation -> {
+            released.await();
+            return List.of();
+        });
+
+        // when
+        ResponseNewsDtoWithComments result = newsService.findNewsWithComments(newsId, 0, 10);
+
+        // then
+        assertThat(result.getTitle()).isEqualTo(news.title());
+        assertThat(result.getCommentDto()).isNull();
+        verify(repository, never()).findById(newsId);
+    }
+
+    @Test
+    void findNewsWithCommentsShouldThrowWhenNewsIsMissing() {
+        // given
+        Long newsId = 1L;
+        when(newsCache.getOrLoad(eq(newsId), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, ResponseNewsDto>>getArgument(1).apply(newsId));
+        when(repository.findById(newsId)).thenReturn(Optional.empty());
+
+        // when, then
+        assertThrows(NewsNotFoundException.class, () -> newsService.findNewsWithComments(newsId, 0, 10));
+    }
+
+    @Test
+    void findAllWithCommentsShouldRequestCommentsOfWholePageAtOnce() {
+        // given
+        News first = new News(1L, LocalDateTime.MAX, "News 1", "This is news 1");
+        News second = new News(2L, LocalDateTime.MAX, "News 2", "This is news 2");
+        CommentDto comment = CommentDto.builder().id(1L).text("This is comment 1").newsId("1").build();
+        when(repository.findAllBy(PageRequest.of(0, 2))).thenReturn(new SliceImpl<>(List.of(first, second)));
+        when(commentClient.getCommentsByNewsIds(List.of(1L, 2L), 3)).thenReturn(Map.of(1L, List.of(comment)));
+
+        // when
+        List<ResponseNewsDtoWithComments> result = newsService.findAllWithComments(0, 2, 3);
+
+        // then
+        assertThat(result).extracting(ResponseNewsDtoWithComments::getCommentDto)
+                .containsExactly(List.of(comment), List.of());
+        verify(commentClient, never()).getCommentsByNewsId(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findAllWithCommentsShouldRejectTooLargePageOrCommentCount() {
+        // when, then
+        assertThrows(InvalidRequestException.class, () -> newsService.findAllWithComments(0, 101, 3));
+        assertThrows(InvalidRequestException.class, () -> newsService.findAllWithComments(0, 10, 51));
+        verifyNoInteractions(repository, commentClient);
+    }
+
     @Test
     void testFindNewsWithCommentById() {
         // given
@@ -0,0 +1,264 @@
+package by.alex.newsappmicriservice.service.impl;
+
+import by.alex.newsappmicriservice.cache.impl.ConcurrentLRUCache;
+import by.alex.newsappmicriservice.cache.impl.ExpiringCache;
+import by.alex.newsappmicriservice.dto.CommentDto;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.FeignException;
+import feign.Request;
+import feign.Retryer;
+import feign.hc5.ApacheHttp5Client;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilientCommentClientTest {
+
+    private static final Duration PAGE_TTL = Duration.ofSeconds(30);
+
+    private static final Duration BATCH_RETRY_INTERVAL = Duration.ofMinutes(5);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void openCircuitBreakerShouldReturnStaleCommentsWithoutCallingService() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        List<CommentDto> comments = List.of(CommentDto.builder()
+                .id(1L)
+                .time(LocalDateTime.MIN)
+                .text("This is comment 1")
+                .username("Alex Pomidorov")
+                .newsId("1")
+                .build());
+        when(apiClient.getCommentsByNewsId(1L, 10, 0))
+                .thenReturn(comments)
+                .thenThrow(serverError());
+        ResilientCommentClient client = client(apiClient, 16);
+        client.getCommentsByNewsId(1L, 10, 0);
+        expirePages();
+        client.getCommentsByNewsId(1L, 10, 0);
+
+        // when
+        List<CommentDto> result = client.getCommentsByNewsId(1L, 10, 0);
+
+        // then
+        assertThat(result).isEqualTo(comments);
+        verify(apiClient, times(2)).getCommentsByNewsId(1L, 10, 0);
+    }
+
+    @Test
+    void repeatedRequestShouldBeServedFromPageCache() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        List<CommentDto> comments = List.of(CommentDto.builder().id(1L).text("This is comment 1").newsId("1").build());
+        when(apiClient.getCommentsByNewsId(1L, 10, 0)).thenReturn(comments);
+        ResilientCommentClient client = client(apiClient, 16);
+        client.getCommentsByNewsId(1L, 10, 0);
+
+        // when
+        List<CommentDto> result = client.getCommentsByNewsId(1L, 10, 0);
+        Map<Long, List<CommentDto>> batch = client.getCommentsByNewsIds(List.of(1L), 10);
+
+        // then
+        assertThat(result).isEqualTo(comments);
+        assertThat(batch).containsExactly(Map.entry(1L, comments));
+        verify(apiClient, times(1)).getCommentsByNewsId(1L, 10, 0);
+        verify(apiClient, times(0)).getCommentsByNewsIds(List.of(1L), 10);
+    }
+
+    @Test
+    void fullBulkheadShouldReturnEmptyCommentsWithoutCallingService() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        ResilientCommentClient client = client(apiClient, 0);
+
+        // when
+        List<CommentDto> result = client.getCommentsByNewsId(1L, 10, 0);
+
+        // then
+        assertThat(result).isEmpty();
+        verify(apiClient, times(0)).getCommentsByNewsId(1L, 10, 0);
+    }
+
+    @Test
+    void unsupportedBatchLookupShouldFallBackToRequestPerNews() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        CommentDto comment = CommentDto.builder().id(1L).text("This is comment 1").newsId("1").build();
+        when(apiClient.getCommentsByNewsIds(List.of(1L, 2L), 3)).thenThrow(notFound());
+        when(apiClient.getCommentsByNewsId(1L, 3, 0)).thenReturn(List.of(comment));
+        when(apiClient.getCommentsByNewsId(2L, 3, 0)).thenReturn(List.of());
+        ResilientCommentClient client = client(apiClient, 16);
+        client.getCommentsByNewsIds(List.of(1L, 2L), 3);
+        expirePages();
+
+        // when
+        Map<Long, List<CommentDto>> result = client.getCommentsByNewsIds(List.of(1L, 2L), 3);
+
+        // then
+        assertThat(result).containsExactly(Map.entry(1L, List.of(comment)), Map.entry(2L, List.of()));
+        verify(apiClient, times(1)).getCommentsByNewsIds(List.of(1L, 2L), 3);
+        verify(apiClient, times(2)).getCommentsByNewsId(1L, 3, 0);
+    }
+
+    @Test
+    void unsupportedBatchLookupShouldBeRetriedAfterInterval() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        when(apiClient.getCommentsByNewsIds(List.of(1L, 2L), 3))
+                .thenThrow(notFound())
+                .thenReturn(Map.of(1L, List.of(), 2L, List.of()));
+        when(apiClient.getCommentsByNewsId(1L, 3, 0)).thenReturn(List.of());
+        when(apiClient.getCommentsByNewsId(2L, 3, 0)).thenReturn(List.of());
+        ResilientCommentClient client = client(apiClient, 16);
+        client.getCommentsByNewsIds(List.of(1L, 2L), 3);
+        now.addAndGet(BATCH_RETRY_INTERVAL.toNanos());
+
+        // when
+        client.getCommentsByNewsIds(List.of(1L, 2L), 3);
+
+        // then
+        verify(apiClient, times(2)).getCommentsByNewsIds(List.of(1L, 2L), 3);
+        verify(apiClient, times(1)).getCommentsByNewsId(1L, 3, 0);
+    }
+
+    @Test
+    void clientErrorForOneNewsShouldNotFailOtherNews() {
+        // given
+        APIClient apiClient = mock(APIClient.class);
+        CommentDto comment = CommentDto.builder().id(1L).text("This is comment 1").newsId("1").build();
+        when(apiClient.getCommentsByNewsIds(List.of(1L, 2L), 3)).thenThrow(notFound());
+        when(apiClient.getCommentsByNewsId(1L, 3, 0)).thenReturn(List.of(comment));
+        when(apiClient.getCommentsByNewsId(2L, 3, 0)).thenThrow(notFound());
+        ResilientCommentClient client = client(apiClient, 16);
+
+        // when
+        Map<Long, List<CommentDto>> result = client.getCommentsByNewsIds(List.of(1L, 2L), 3);
+
+        // then
+        assertThat(result).containsExactly(Map.entry(1L, List.of(comment)), Map.entry(2L, List.of()));
+    }
+
+    @Test
+    void slowStubServerShouldBeCutOffByReadTimeout() throws IOException {
+        // given
+        AtomicInteger requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/comments/news/", exchange -> {
+            if (requests.incrementAndGet() > 1) {
+                sleep(1_000);
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        APIClient apiClient = Feign.builder()
+                .client(new ApacheHttp5Client())
+                .contract(new SpringMvcContract())
+                .decoder(new SpringDecoder(() -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter())))
+                .options(new Request.Options(200, TimeUnit.MILLISECONDS, 200, TimeUnit.MILLISECONDS, true))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(APIClient.class, "http://localhost:" + server.getAddress().getPort() + "/comments");
+        ResilientCommentClient client = client(apiClient, 16);
+
+        // when
+        List<CommentDto> first = client.getCommentsByNewsId(1L, 10, 0);
+        expirePages();
+        long start = System.nanoTime();
+        List<CommentDto> second = client.getCommentsByNewsId(1L, 10, 0);
+        long elapsed = System.nanoTime() - start;
+
+        // then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(elapsed).isLessThan(TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    private ResilientCommentClient client(APIClient apiClient, int maxConcurrentCalls) {
+        Bulkhead bulkhead = Bulkhead.of("comments", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("comments", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        ExpiringCache<String, List<CommentDto>> pageCache = new ExpiringCache<>(new ConcurrentLRUCache<>(10),
+                PAGE_TTL, null, null, Runnable::run, now::get);
+        return new ResilientCommentClient(apiClient, bulkhead, circuitBreaker, pageCache, new ConcurrentLRUCache<>(10),
+                executor, BATCH_RETRY_INTERVAL, now::get);
+    }
+
+    private void expirePages() {
+        now.addAndGet(PAGE_TTL.toNanos());
+    }
+
+    private static FeignException serverError() {
+        return new FeignException.ServiceUnavailable("Service unavailable", request(), null, null);
+    }
+
+    private static FeignException notFound() {
+        return new FeignException.NotFound("Not found", request(), null, null);
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "/comments/news", Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}